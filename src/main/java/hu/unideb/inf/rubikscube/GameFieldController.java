@@ -537,41 +537,41 @@ public class GameFieldController implements Initializable {
 					case RIGHT:
 						layerNumber = getLayerNumber(indexK);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "S");
+							layerRotation = Rotation.of(layerNumber, "S");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "F");
+							layerRotation = Rotation.of(layerNumber, "F");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "B'");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "B'");
 						}
 						break;
 					case UP:
 						layerNumber = getLayerNumber(indexI);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "M'");
+							layerRotation = Rotation.of(layerNumber, "M'");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "L'");
+							layerRotation = Rotation.of(layerNumber, "L'");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "R");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "R");
 						}
 						break;
 					case LEFT:
 						layerNumber = getLayerNumber(indexK);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "S'");
+							layerRotation = Rotation.of(layerNumber, "S'");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "F'");
+							layerRotation = Rotation.of(layerNumber, "F'");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "B");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "B");
 						}
 						break;
 					case DOWN:
 						layerNumber = getLayerNumber(indexI);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "M");
+							layerRotation = Rotation.of(layerNumber, "M");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "L");
+							layerRotation = Rotation.of(layerNumber, "L");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "R'");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "R'");
 						}
 						break;
 				}
@@ -582,41 +582,41 @@ public class GameFieldController implements Initializable {
 					case RIGHT:
 						layerNumber = getLayerNumber(indexJ);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "E'");
+							layerRotation = Rotation.of(layerNumber, "E'");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "U'");
+							layerRotation = Rotation.of(layerNumber, "U'");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "D");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "D");
 						}
 						break;
 					case UP:
 						layerNumber = getLayerNumber(indexI);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "M'");
+							layerRotation = Rotation.of(layerNumber, "M'");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "L'");
+							layerRotation = Rotation.of(layerNumber, "L'");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "R");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "R");
 						}
 						break;
 					case LEFT:
 						layerNumber = getLayerNumber(indexJ);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "E");
+							layerRotation = Rotation.of(layerNumber, "E");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "U");
+							layerRotation = Rotation.of(layerNumber, "U");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "D'");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "D'");
 						}
 						break;
 					case DOWN:
 						layerNumber = getLayerNumber(indexI);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "M");
+							layerRotation = Rotation.of(layerNumber, "M");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "L");
+							layerRotation = Rotation.of(layerNumber, "L");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "R'");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "R'");
 						}
 						break;
 				}
@@ -627,41 +627,41 @@ public class GameFieldController implements Initializable {
 					case RIGHT:
 						layerNumber = getLayerNumber(indexK);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "S'");
+							layerRotation = Rotation.of(layerNumber, "S'");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "F'");
+							layerRotation = Rotation.of(layerNumber, "F'");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "B");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "B");
 						}
 						break;
 					case UP:
 						layerNumber = getLayerNumber(indexI);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "M'");
+							layerRotation = Rotation.of(layerNumber, "M'");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "L'");
+							layerRotation = Rotation.of(layerNumber, "L'");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "R");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "R");
 						}
 						break;
 					case LEFT:
 						layerNumber = getLayerNumber(indexK);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "S");
+							layerRotation = Rotation.of(layerNumber, "S");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "F");
+							layerRotation = Rotation.of(layerNumber, "F");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "B'");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "B'");
 						}
 						break;
 					case DOWN:
 						layerNumber = getLayerNumber(indexI);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "M");
+							layerRotation = Rotation.of(layerNumber, "M");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "L");
+							layerRotation = Rotation.of(layerNumber, "L");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "R'");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "R'");
 						}
 						break;
 				}
@@ -671,41 +671,41 @@ public class GameFieldController implements Initializable {
 					case RIGHT:
 						layerNumber = getLayerNumber(indexJ);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "E'");
+							layerRotation = Rotation.of(layerNumber, "E'");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "U'");
+							layerRotation = Rotation.of(layerNumber, "U'");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "D");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "D");
 						}
 						break;
 					case UP:
 						layerNumber = getLayerNumber(indexI);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "M");
+							layerRotation = Rotation.of(layerNumber, "M");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "L");
+							layerRotation = Rotation.of(layerNumber, "L");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "R'");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "R'");
 						}
 						break;
 					case LEFT:
 						layerNumber = getLayerNumber(indexJ);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "E");
+							layerRotation = Rotation.of(layerNumber, "E");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "U");
+							layerRotation = Rotation.of(layerNumber, "U");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "D'");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "D'");
 						}
 						break;
 					case DOWN:
 						layerNumber = getLayerNumber(indexI);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "M'");
+							layerRotation = Rotation.of(layerNumber, "M'");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "L'");
+							layerRotation = Rotation.of(layerNumber, "L'");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "R");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "R");
 						}
 						break;
 				}
@@ -715,41 +715,41 @@ public class GameFieldController implements Initializable {
 					case RIGHT:
 						layerNumber = getLayerNumber(indexJ);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "E'");
+							layerRotation = Rotation.of(layerNumber, "E'");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "U'");
+							layerRotation = Rotation.of(layerNumber, "U'");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "D");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "D");
 						}
 						break;
 					case UP:
 						layerNumber = getLayerNumber(indexK);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "S'");
+							layerRotation = Rotation.of(layerNumber, "S'");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "F'");
+							layerRotation = Rotation.of(layerNumber, "F'");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "B");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "B");
 						}
 						break;
 					case LEFT:
 						layerNumber = getLayerNumber(indexJ);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "E");
+							layerRotation = Rotation.of(layerNumber, "E");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "U");
+							layerRotation = Rotation.of(layerNumber, "U");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "D'");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "D'");
 						}
 						break;
 					case DOWN:
 						layerNumber = getLayerNumber(indexK);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "S");
+							layerRotation = Rotation.of(layerNumber, "S");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "F");
+							layerRotation = Rotation.of(layerNumber, "F");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "B'");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "B'");
 						}
 						break;
 				}
@@ -759,41 +759,41 @@ public class GameFieldController implements Initializable {
 					case RIGHT:
 						layerNumber = getLayerNumber(indexJ);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "E'");
+							layerRotation = Rotation.of(layerNumber, "E'");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "U'");
+							layerRotation = Rotation.of(layerNumber, "U'");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "D");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "D");
 						}
 						break;
 					case UP:
 						layerNumber = getLayerNumber(indexK);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "S");
+							layerRotation = Rotation.of(layerNumber, "S");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "F");
+							layerRotation = Rotation.of(layerNumber, "F");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "B'");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "B'");
 						}
 						break;
 					case LEFT:
 						layerNumber = getLayerNumber(indexJ);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "E");
+							layerRotation = Rotation.of(layerNumber, "E");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "U");
+							layerRotation = Rotation.of(layerNumber, "U");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "D'");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "D'");
 						}
 						break;
 					case DOWN:
 						layerNumber = getLayerNumber(indexK);
 						if (layerNumber == 0) {
-							layerRotation = new Rotation(layerNumber, "S'");
+							layerRotation = Rotation.of(layerNumber, "S'");
 						} else if (layerNumber > 0) {
-							layerRotation = new Rotation(layerNumber, "F'");
+							layerRotation = Rotation.of(layerNumber, "F'");
 						} else if (layerNumber < 0) {
-							layerRotation = new Rotation(Math.abs(layerNumber), "B");
+							layerRotation = Rotation.of(Math.abs(layerNumber), "B");
 						}
 						break;
 				}
@@ -16,6 +16,7 @@
 package hu.unideb.inf.rubikscube;
 
 import java.net.URL;
+import java.util.Arrays;
 import static javafx.application.Application.launch;
 import javafx.fxml.FXMLLoader;
 import javafx.application.Application;
@@ -94,9 +95,16 @@ public class MainApp extends Application {
 	/**
 	 * The main() method of the class.
 	 *
+	 * <p>
+	 * If the first argument is {@value ScrambleCommand#NAME}, the scrambles specified by the rest of the arguments are written to a file instead of starting the game.</p>
+	 *
 	 * @param args the command line arguments
 	 */
 	public static void main(String[] args) {
+		if (args.length > 0 && ScrambleCommand.NAME.equals(args[0])) {
+			ScrambleCommand.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
 		launch(args);
 	}
 
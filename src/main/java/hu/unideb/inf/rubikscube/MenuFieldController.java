@@ -17,6 +17,7 @@ package hu.unideb.inf.rubikscube;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import java.net.URL;
 import java.util.ResourceBundle;
 import javafx.event.ActionEvent;
@@ -64,6 +65,10 @@ public class MenuFieldController implements Initializable {
 	@FXML
 	private Button loadButton;
 	@FXML
+	private Button undoButton;
+	@FXML
+	private Button redoButton;
+	@FXML
 	private ComboBox cubeSizeSetter;
 	@FXML
 	private TextField cubeSizeTextField;
@@ -161,6 +166,24 @@ public class MenuFieldController implements Initializable {
 		gameFieldController.setupGameField();
 	}
 
+	@FXML
+	private void undoRotation(ActionEvent event) {
+
+		logger.info("Undo button clicked");
+		if (gameFieldController.getCube().undo()) {
+			gameFieldController.setupGameField();
+		}
+	}
+
+	@FXML
+	private void redoRotation(ActionEvent event) {
+
+		logger.info("Redo button clicked");
+		if (gameFieldController.getCube().redo()) {
+			gameFieldController.setupGameField();
+		}
+	}
+
 	@FXML
 	private void saveGame(ActionEvent event) {
 
@@ -257,6 +280,9 @@ public class MenuFieldController implements Initializable {
 			} else {
 				logger.error("Could not load cube from {}", selectedFile);
 			}
+		} catch (JsonParseException exception) {
+			logger.error("Could not load cube from {}", selectedFile);
+			logger.error("{}", exception.getMessage());
 		} catch (UnsupportedEncodingException exception) {
 			logger.error("Error at reading from file {}", selectedFile);
 			logger.error("{}", exception.getMessage());
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube;
+
+import hu.unideb.inf.rubikscube.model.ScrambleGenerator;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class writes scrambles to a file without starting the game.
+ *
+ * <p>
+ * The command takes the size of the cube, the number of scrambles, the seed and the path of the file, for example:</p>
+ * <pre>
+ *	java -jar RubiksCube.jar --scrambles 4 1000000 42 scrambles4.txt
+ * </pre>
+ * <p>
+ * The file contains one scramble in each line, and the same arguments always give the same file. The process exits with a non-zero status if the arguments are invalid or the file can't be written.</p>
+ *
+ * @see ScrambleGenerator
+ * @author kinga
+ */
+public class ScrambleCommand {
+
+	/**
+	 * The first argument of the application that runs this command instead of the game, is {@value}.
+	 */
+	public static final String NAME = "--scrambles";
+
+	//The exit statuses of the command
+	static final int SUCCESS = 0;
+	static final int WRITE_ERROR = 1;
+	static final int INVALID_ARGUMENTS = 2;
+
+	private static Logger logger = LoggerFactory.getLogger(ScrambleCommand.class);
+
+	private ScrambleCommand() {
+	}
+
+	/**
+	 * Writes the scrambles specified by the command line arguments to a file, and exits with the status of the command.
+	 *
+	 * @param args The size of the cube, the number of scrambles, the seed and the path of the file
+	 */
+	public static void main(String[] args) {
+		System.exit(run(args));
+	}
+
+	/**
+	 * Writes the scrambles specified by the command line arguments to a file.
+	 *
+	 * @param args The size of the cube, the number of scrambles, the seed and the path of the file
+	 * @return 0 if the scrambles were written, 1 if the file couldn't be written, 2 if the arguments are invalid
+	 */
+	static int run(String[] args) {
+
+		if (args.length != 4) {
+			logger.error("Usage: {} <cubesize> <count> <seed> <file>", NAME);
+			return INVALID_ARGUMENTS;
+		}
+
+		int cubeSize;
+		long count;
+		long seed;
+		try {
+			cubeSize = Integer.parseInt(args[0]);
+			count = Long.parseLong(args[1]);
+			seed = Long.parseLong(args[2]);
+		} catch (NumberFormatException exception) {
+			logger.error("Invalid number in arguments {} {} {}", args[0], args[1], args[2]);
+			return INVALID_ARGUMENTS;
+		}
+		if (cubeSize < 2 || count < 0) {
+			logger.error("Invalid cubesize {} or count {}", cubeSize, count);
+			return INVALID_ARGUMENTS;
+		}
+
+		Path path;
+		try {
+			path = Paths.get(args[3]);
+		} catch (InvalidPathException exception) {
+			logger.error("Invalid file {}", args[3]);
+			return INVALID_ARGUMENTS;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			new ScrambleGenerator(cubeSize, seed).writeTo(channel, count);
+			logger.info("Successfully written {} scrambles to {}", count, path);
+			return SUCCESS;
+		} catch (IOException exception) {
+			logger.error("Error at writing scrambles to {}", path);
+			logger.error("{}", exception.getMessage());
+			return WRITE_ERROR;
+		}
+	}
+}
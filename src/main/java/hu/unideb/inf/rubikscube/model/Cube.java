@@ -15,6 +15,11 @@
  */
 package hu.unideb.inf.rubikscube.model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +46,10 @@ import org.slf4j.LoggerFactory;
  * </pre>
  * <p>
  * The size of the cube means how many layers the cube consists of.</p>
+ * <p>
+ * The colors of the whole cube are stored in a single {@code byte} array, side after side in the order {@code U, F, D, B, R, L}, each side row by row. The {@link Side} objects of the cube are views of this array.</p>
+ * <p>
+ * The cube keeps a 64-bit hash of its state and the number of stickers of each color on each side, which are updated with the stickers moved by each rotation, see {@link #getStateHash()} and {@link #isSolved()}. Two cubes are equal if they have the same size and the same colors at each position, and the colors are only compared if the hashes of the cubes are the same.</p>
  *
  * @author kinga
  */
@@ -54,9 +63,45 @@ public class Cube {
 	 * The default size of the cube is {@value}.
 	 */
 	public static final int DEFAULT_SIZE = 3;
+	/**
+	 * The default number of moved stickers from which a rotation is applied in parallel, is {@value}.
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 15;
+
+	//The positions and the default colors of the sides in the order they are stored
+	static final char[] SIDE_POSITIONS = {'U', 'F', 'D', 'B', 'R', 'L'};
+	static final StickerColor[] SIDE_COLORS = {
+		StickerColor.RED, StickerColor.WHITE, StickerColor.ORANGE,
+		StickerColor.YELLOW, StickerColor.GREEN, StickerColor.BLUE
+	};
+	private static final int[] SIDE_INDICES = new int[128];
+
+	static {
+		Arrays.fill(SIDE_INDICES, -1);
+		for (int i = 0; i < NUMBER_OF_SIDES; ++i) {
+			SIDE_INDICES[SIDE_POSITIONS[i]] = i;
+		}
+	}
+
+	//For the rotations x, y, z of the whole cube: the sides that take each other's place,
+	//how many times they are turned when they arrive, and the sides on the axis
+	private static final int[][] CUBE_ROTATION_CYCLES = {{0, 1, 2, 3}, {1, 4, 3, 5}, {0, 5, 2, 4}};
+	private static final int[][] CUBE_ROTATION_TURNS = {{0, 0, 2, 2}, {0, 0, 0, 0}, {1, 1, 1, 1}};
+	private static final int[][] CUBE_ROTATION_AXIS_SIDES = {{4, 5}, {0, 2}, {1, 3}};
 
 	private int cubeSize;
-	private Side[] sides = new Side[NUMBER_OF_SIDES];
+	private byte[] stickers;
+	private byte[] orientations;
+	private byte[] layout;
+	//The sides of a cube saved before the stickers were stored in a single array, only read when such a cube is loaded
+	private LegacySide[] sides;
+	private transient Side[] sideViews;
+	private transient StateTracker tracker;
+	private transient Runnable onSolved;
+	private transient CubeSnapshot lastSnapshot;
+	private transient MoveTable moveTable;
+	private transient RotationJournal journal;
+	private transient int parallelThreshold;
 
 	private static Logger logger = LoggerFactory.getLogger(Cube.class);
 
@@ -73,316 +118,704 @@ public class Cube {
 			logger.error("Invalid cubesize {}, setting to DEFAULT_SIZE {}", cubeSize, DEFAULT_SIZE);
 			this.cubeSize = DEFAULT_SIZE;
 		}
+		stickers = new byte[NUMBER_OF_SIDES * this.cubeSize * this.cubeSize];
+		orientations = new byte[NUMBER_OF_SIDES];
+		layout = new byte[NUMBER_OF_SIDES];
 		resetSides();
 	}
 
+	/**
+	 * This constructor creates a copy of the {@code other} cube.
+	 *
+	 * <p>
+	 * The stickers of the cube are copied with bulk array copies, and the tracker of its state is copied too, so nothing has to be recomputed. The action set with {@link #setOnSolved(Runnable)} is not copied.</p>
+	 *
+	 * @param other The cube to be copied
+	 */
+	public Cube(Cube other) {
+		other.getSides();
+		cubeSize = other.cubeSize;
+		stickers = other.stickers.clone();
+		orientations = other.orientations.clone();
+		layout = other.layout.clone();
+		tracker = new StateTracker(other.tracker, stickers);
+		parallelThreshold = other.parallelThreshold;
+		createSides();
+		logger.info("Cube copied with cubesize {}", cubeSize);
+	}
+
+	/**
+	 * Creates a cube with a size {@code cubeSize} whose stickers are the specified {@code stickers}.
+	 *
+	 * <p>
+	 * The {@code stickers} must be in the order of a normalized cube, and they are used by the cube without being copied, so they must not be changed afterwards.</p>
+	 *
+	 * @param cubeSize The size of the cube
+	 * @param stickers The colors of the stickers, as ordinals of {@link StickerColor}
+	 */
+	Cube(int cubeSize, byte[] stickers) {
+		this.cubeSize = cubeSize;
+		this.stickers = stickers;
+		orientations = new byte[NUMBER_OF_SIDES];
+		layout = new byte[NUMBER_OF_SIDES];
+		resetLayout();
+		createSides();
+		logger.info("Cube created from stickers with cubesize {}", cubeSize);
+	}
+
 	/**
 	 * Sets the cube to its default state.
 	 */
 	public void resetSides() {
 
-		sides[0] = new Side(cubeSize, StickerColor.RED, 'U');
-		sides[1] = new Side(cubeSize, StickerColor.WHITE, 'F');
-		sides[2] = new Side(cubeSize, StickerColor.ORANGE, 'D');
-		sides[3] = new Side(cubeSize, StickerColor.YELLOW, 'B');
-		sides[4] = new Side(cubeSize, StickerColor.GREEN, 'R');
-		sides[5] = new Side(cubeSize, StickerColor.BLUE, 'L');
+		int sideArea = cubeSize * cubeSize;
+		for (int i = 0; i < NUMBER_OF_SIDES; ++i) {
+			Arrays.fill(stickers, i * sideArea, (i + 1) * sideArea, (byte) SIDE_COLORS[i].ordinal());
+		}
+		Arrays.fill(orientations, (byte) 0);
+		resetLayout();
+		tracker = null;
+		createSides();
+		clearJournal();
 
 		logger.info("Cube's sides reset to default state");
 	}
 
+	private void resetLayout() {
+		for (int i = 0; i < NUMBER_OF_SIDES; ++i) {
+			layout[i] = (byte) i;
+		}
+	}
+
+	/**
+	 * Creates the {@link Side} views of the sticker array.
+	 *
+	 * <p>
+	 * The side at the position with index {@code i} is stored as the side with index {@code layout[i]} in the sticker array. The views and the tracker of the state are not serialized with the cube, so a deserialized cube gets them on its first use. If there's no tracker, it's created from the stickers, after checking that the stickers, the orientations and the layout of the sides are valid.</p>
+	 */
+	private void createSides() {
+
+		if (stickers == null) {
+			readLegacySides();
+		} else if (tracker == null && !isValidState()) {
+			logger.error("Invalid state of the loaded cube, setting to default state");
+			resetState();
+		}
+		int sideArea = cubeSize * cubeSize;
+		if (orientations == null) {
+			orientations = new byte[NUMBER_OF_SIDES];
+		}
+		if (layout == null) {
+			layout = new byte[NUMBER_OF_SIDES];
+			resetLayout();
+		}
+		if (tracker == null) {
+			tracker = new StateTracker(stickers, cubeSize);
+		}
+		sideViews = new Side[NUMBER_OF_SIDES];
+		for (int i = 0; i < NUMBER_OF_SIDES; ++i) {
+			sideViews[i] = new Side(stickers, layout[i] * sideArea, orientations, layout[i], cubeSize, SIDE_POSITIONS[i], tracker);
+		}
+	}
+
+	/**
+	 * Fills the sticker array from the sides of a cube saved before the stickers were stored in a single array.
+	 *
+	 * <p>
+	 * Such a cube was saved with a two-dimensional array of colors for each side, and with no orientations of the sides. If the saved sides are missing or don't match the size of the cube, the cube is set to its default state.</p>
+	 */
+	private void readLegacySides() {
+
+		if (cubeSize < 2) {
+			logger.error("Invalid cubesize {} of loaded cube, setting to DEFAULT_SIZE {}", cubeSize, DEFAULT_SIZE);
+			cubeSize = DEFAULT_SIZE;
+		}
+		int sideArea = cubeSize * cubeSize;
+		stickers = new byte[NUMBER_OF_SIDES * sideArea];
+		orientations = null;
+		layout = null;
+		tracker = null;
+
+		LegacySide[] legacySides = sides;
+		sides = null;
+		if (!isValidLegacySides(legacySides)) {
+			logger.error("Could not read the sides of the loaded cube, setting to default state");
+			resetState();
+			return;
+		}
+
+		for (LegacySide legacySide : legacySides) {
+			int start = SIDE_INDICES[legacySide.position] * sideArea;
+			for (int i = 0; i < cubeSize; ++i) {
+				for (int j = 0; j < cubeSize; ++j) {
+					stickers[start + i * cubeSize + j] = (byte) legacySide.colors[i][j].ordinal();
+				}
+			}
+		}
+		logger.info("Cube read from sides saved with cubesize {}", cubeSize);
+	}
+
+	/**
+	 * Returns whether the size, the stickers, the orientations and the layout of the sides of a loaded cube fit together.
+	 */
+	private boolean isValidState() {
+
+		if (cubeSize < 2 || stickers.length != NUMBER_OF_SIDES * cubeSize * cubeSize) {
+			return false;
+		}
+		int colorCount = StickerColor.values().length;
+		for (byte sticker : stickers) {
+			if (sticker < 0 || sticker >= colorCount) {
+				return false;
+			}
+		}
+		if (orientations != null) {
+			if (orientations.length != NUMBER_OF_SIDES) {
+				return false;
+			}
+			for (byte orientation : orientations) {
+				if (orientation < 0 || orientation > 3) {
+					return false;
+				}
+			}
+		}
+		if (layout != null) {
+			if (layout.length != NUMBER_OF_SIDES) {
+				return false;
+			}
+			boolean[] found = new boolean[NUMBER_OF_SIDES];
+			for (byte side : layout) {
+				if (side < 0 || side >= NUMBER_OF_SIDES || found[side]) {
+					return false;
+				}
+				found[side] = true;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sets the stickers, the orientations and the layout of the sides of a loaded cube to the default state.
+	 */
+	private void resetState() {
+
+		if (cubeSize < 2) {
+			logger.error("Invalid cubesize {} of loaded cube, setting to DEFAULT_SIZE {}", cubeSize, DEFAULT_SIZE);
+			cubeSize = DEFAULT_SIZE;
+		}
+		int sideArea = cubeSize * cubeSize;
+		stickers = new byte[NUMBER_OF_SIDES * sideArea];
+		for (int i = 0; i < NUMBER_OF_SIDES; ++i) {
+			Arrays.fill(stickers, i * sideArea, (i + 1) * sideArea, (byte) SIDE_COLORS[i].ordinal());
+		}
+		orientations = null;
+		layout = null;
+	}
+
+	private boolean isValidLegacySides(LegacySide[] legacySides) {
+
+		if (legacySides == null || legacySides.length != NUMBER_OF_SIDES) {
+			return false;
+		}
+		boolean[] found = new boolean[NUMBER_OF_SIDES];
+		for (LegacySide legacySide : legacySides) {
+			if (legacySide == null || legacySide.position >= SIDE_INDICES.length
+					|| SIDE_INDICES[legacySide.position] < 0 || found[SIDE_INDICES[legacySide.position]]
+					|| legacySide.colors == null || legacySide.colors.length != cubeSize) {
+				return false;
+			}
+			found[SIDE_INDICES[legacySide.position]] = true;
+			for (StickerColor[] row : legacySide.colors) {
+				if (row == null || row.length != cubeSize || Arrays.asList(row).contains(null)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Applies a {@link Rotation} {@code rotation} to the cube.
 	 *
 	 * <p>
-	 * As a result, one of the layers of the cube will be rotated with the given {@code rotation}.</p>
+	 * As a result, one of the layers, or a block of layers of the cube will be rotated with the given {@code rotation}. If the {@code rotation} is a rotation of the whole cube, the sides of the cube only take each other's place, and no stickers are moved.</p>
 	 *
 	 * @param rotation The rotation to be applied
 	 * @see Rotation
+	 * @see MoveTable
 	 */
 	public void rotate(Rotation rotation) {
+		if (applyRotation(rotation)) {
+			getJournal().record(rotation);
+		}
+	}
 
-		String rotationName = rotation.getName();
-		Side mainSide = getSideAt(rotation.getSidePosition());
+	/**
+	 * Applies the {@code rotation} to the cube without recording it.
+	 *
+	 * @return {@code true} if the rotation was applied, {@code false} if it's invalid on the cube
+	 */
+	private boolean applyRotation(Rotation rotation) {
 
-		StickerColor tempColor;
-		int last = cubeSize - 1;
-		int counter = 1;
+		if (rotation.isCubeRotation()) {
+			rotateWholeCube(rotation);
+			logger.info("Cube was rotated with rotation {}", rotation);
+			return true;
+		}
 
-		if (rotationName.endsWith("2")) {
-			counter = 2;
+		Permutation permutation = getMoveTable().getLayerPermutation(rotation);
+		if (permutation == null) {
+			logger.error("Could not rotate the cube with rotation {}", rotation);
+			return false;
 		}
 
-		int layerNr = rotation.getLayerNumber() - 1;
-		String rotationType = rotation.getRotationType();
-		int middleRowCol = cubeSize / 2;
+		Side[] sides = getSides();
+		boolean wasSolved = tracker.isSolved();
+		applyToStickers(permutation, sides);
+		if (rotation.getLayerNumber() == 1 && !rotation.isMiddleLayerRotation()) {
+			sides[SIDE_INDICES[rotation.getSidePosition()]].turn(rotation.getQuarterTurns());
+		}
+		logger.info("Cube was rotated with rotation {}", rotation);
+		notifyIfSolved(wasSolved);
+		return true;
+	}
+
+	/**
+	 * Applies the sequence of {@code rotations} to the cube.
+	 *
+	 * <p>
+	 * The sequence is shortened with {@link SequenceOptimizer}, and composed into a single permutation of the stickers, which is applied in one pass. The rotations of the shortened sequence can be undone one by one.</p>
+	 *
+	 * @param rotations The rotations to be applied one after the other
+	 * @see #rotate(Rotation)
+	 * @see #applyAlgorithm(Rotation[])
+	 * @see #undo()
+	 */
+	public void rotate(Rotation[] rotations) {
+		Rotation[] optimized = SequenceOptimizer.optimize(rotations, cubeSize);
+		applyOptimized(optimized, getMoveTable().composeOptimized(optimized));
+	}
 
-		for (int k = 0; k < counter; ++k) {
-			if (layerNr == 0 && mainSide != null) {
-				if (rotationType.contains("'")) {
-					mainSide.rotateMainSideCounterClockwise();
+	/**
+	 * Applies the {@code algorithm} to the cube, the same way as {@link #rotate(Rotation[])}.
+	 *
+	 * <p>
+	 * The composed permutation of the algorithm is kept in the shared {@link PermutationCache}, so applying the same algorithm again doesn't need to compose it again. This should be used for the sequences that are applied over and over, one-off sequences should be applied with {@link #rotate(Rotation[])}, so they don't push the algorithms out of the cache.</p>
+	 *
+	 * @param algorithm The rotations of the algorithm
+	 */
+	public void applyAlgorithm(Rotation[] algorithm) {
+		Rotation[] optimized = SequenceOptimizer.optimize(algorithm, cubeSize);
+		applyOptimized(optimized, PermutationCache.getSharedCache().getOptimizedPermutation(optimized, cubeSize));
+	}
+
+	/**
+	 * Applies the {@code permutation} of the {@code optimized} sequence, and records its rotations in the journal.
+	 */
+	private void applyOptimized(Rotation[] optimized, Permutation permutation) {
+
+		if (!applyPermutation(permutation)) {
+			return;
+		}
+		RotationJournal journal = getJournal();
+		for (Rotation rotation : optimized) {
+			if (getMoveTable().isValid(rotation)) {
+				journal.record(rotation);
+			}
+		}
+	}
+
+	/**
+	 * Applies the specified {@code permutation} of the stickers to the cube.
+	 *
+	 * <p>
+	 * The permutation of a whole sequence of rotations can be obtained with {@link MoveTable#compose(Rotation[])}, and applying it moves each sticker only once, regardless of the length of the sequence.</p>
+	 * <p>
+	 * The rotations applied before can't be undone afterwards.</p>
+	 *
+	 * @param permutation The permutation to be applied, must be defined on as many stickers as the cube has
+	 */
+	public void apply(Permutation permutation) {
+		if (applyPermutation(permutation)) {
+			clearJournal();
+		}
+	}
+
+	private boolean applyPermutation(Permutation permutation) {
+
+		if (permutation.getSize() != stickers.length) {
+			logger.error("Permutation of {} stickers can't be applied to cube {}", permutation.getSize(), cubeSize);
+			return false;
+		}
+
+		Side[] sides = getSides();
+		boolean wasSolved = tracker.isSolved();
+		applyToStickers(permutation, sides);
+		logger.info("Permutation applied to the cube");
+		notifyIfSolved(wasSolved);
+		return true;
+	}
+
+	/**
+	 * Undoes the last rotation applied to the cube.
+	 *
+	 * <p>
+	 * The last rotation is undone by applying its inverse, so undoing costs the same as a single rotation. Consecutive rotations of the same layers are undone together, and only the last {@link #setJournalCapacity(int)} rotations can be undone. Resetting, scrambling or restoring the cube, or applying a permutation to it can't be undone, and the colors set on its sides are not recorded.</p>
+	 *
+	 * @return {@code true} if a rotation was undone, {@code false} if there's nothing to undo
+	 * @see Rotation#getInverse()
+	 */
+	public boolean undo() {
+
+		Rotation rotation = getJournal().undo();
+		if (rotation == null) {
+			logger.debug("Nothing to undo");
+			return false;
+		}
+		applyRotation(rotation.getInverse());
+		logger.info("Rotation {} undone", rotation);
+		return true;
+	}
+
+	/**
+	 * Applies the last undone rotation again.
+	 *
+	 * <p>
+	 * Applying a new rotation to the cube discards the rotations that could be redone.</p>
+	 *
+	 * @return {@code true} if a rotation was redone, {@code false} if there's nothing to redo
+	 */
+	public boolean redo() {
+
+		Rotation rotation = getJournal().redo();
+		if (rotation == null) {
+			logger.debug("Nothing to redo");
+			return false;
+		}
+		applyRotation(rotation);
+		logger.info("Rotation {} redone", rotation);
+		return true;
+	}
+
+	/**
+	 * Returns whether there's a rotation that can be undone.
+	 *
+	 * @return {@code true} if {@link #undo()} would undo a rotation, {@code false} otherwise
+	 */
+	public boolean canUndo() {
+		return getJournal().getUndoCount() > 0;
+	}
+
+	/**
+	 * Returns whether there's a rotation that can be redone.
+	 *
+	 * @return {@code true} if {@link #redo()} would redo a rotation, {@code false} otherwise
+	 */
+	public boolean canRedo() {
+		return getJournal().getRedoCount() > 0;
+	}
+
+	/**
+	 * Sets how many rotations can be undone at most.
+	 *
+	 * <p>
+	 * The journal only keeps references to the shared {@link Rotation} objects, so each rotation needs the memory of a reference. When more rotations are applied, the oldest ones can't be undone anymore. The default capacity is 1000.</p>
+	 *
+	 * @param capacity The number of rotations that can be undone, 0 turns off undoing
+	 */
+	public void setJournalCapacity(int capacity) {
+		getJournal().setCapacity(capacity);
+	}
+
+	private RotationJournal getJournal() {
+		if (journal == null) {
+			journal = new RotationJournal(RotationJournal.DEFAULT_CAPACITY);
+		}
+		return journal;
+	}
+
+	private void clearJournal() {
+		if (journal != null) {
+			journal.clear();
+		}
+	}
+
+	/**
+	 * Returns how many times the sequence of {@code rotations} has to be applied to the cube to get it back to its current state.
+	 *
+	 * <p>
+	 * The sequence is composed into a permutation, and the period is calculated from the cycles of the permutation and the colors along them, so the rotations are not applied to the cube. The period divides the order of the permutation, see {@link Permutation#getOrder()}, and is smaller when stickers of the same color take each other's place, like the centers of bigger cubes.</p>
+	 *
+	 * @param rotations The sequence of rotations
+	 * @return The number of times the sequence has to be applied, or -1 if it's too large for a {@code long}
+	 * @see Permutation#getMovedIndices()
+	 */
+	public long getPeriod(Rotation[] rotations) {
+		Side[] sides = getSides();
+		Permutation permutation = getMoveTable().compose(rotations);
+		return permutation.getOrder(stickers, isNormalized() ? null : sides);
+	}
+
+	/**
+	 * Applies the {@code rotations}, which must move disjoint sets of stickers, at the same time with the threads of the {@code pool}.
+	 *
+	 * <p>
+	 * Each rotation is applied by a separate task that collects its changes of the state in its own delta tracker, and the deltas are merged when all tasks are finished. The most outer layers are turned afterwards, so the views of the sides don't change while the tasks run.</p>
+	 *
+	 * @param rotations Rotations of different layers of the same axis, none of them rotates the whole cube
+	 * @param pool The pool whose threads apply the rotations
+	 * @see RotationScheduler
+	 */
+	void rotateConcurrently(Rotation[] rotations, ForkJoinPool pool) {
+
+		Permutation[] permutations = new Permutation[rotations.length];
+		for (int i = 0; i < rotations.length; ++i) {
+			permutations[i] = getMoveTable().getLayerPermutation(rotations[i]);
+			if (permutations[i] == null || rotations[i].isCubeRotation()) {
+				logger.error("Could not rotate the cube with rotation {}", rotations[i]);
+				return;
+			}
+		}
+
+		Side[] sides = getSides();
+		Side[] views = isNormalized() ? null : sides;
+		boolean wasSolved = tracker.isSolved();
+		List<ForkJoinTask<StateTracker>> tasks = new ArrayList<>();
+		for (Permutation permutation : permutations) {
+			tasks.add(pool.submit(() -> {
+				StateTracker delta = tracker.newDelta();
+				if (views == null) {
+					permutation.applyTo(stickers, delta);
 				} else {
-					mainSide.rotateMainSideClockwise();
+					permutation.applyTo(stickers, views, delta);
 				}
+				return delta;
+			}));
+		}
+		for (ForkJoinTask<StateTracker> task : tasks) {
+			tracker.merge(task.join());
+		}
+
+		RotationJournal journal = getJournal();
+		for (Rotation rotation : rotations) {
+			if (rotation.getLayerNumber() == 1 && !rotation.isMiddleLayerRotation()) {
+				sides[SIDE_INDICES[rotation.getSidePosition()]].turn(rotation.getQuarterTurns());
+			}
+			journal.record(rotation);
+		}
+		logger.info("Cube was rotated with {} rotations at the same time", rotations.length);
+		notifyIfSolved(wasSolved);
+	}
+
+	private void applyToStickers(Permutation permutation, Side[] sides) {
+		if (parallelThreshold > 0 && permutation.getMovedCount() >= parallelThreshold) {
+			permutation.applyInParallel(stickers, isNormalized() ? null : sides, tracker, ForkJoinPool.commonPool());
+		} else if (isNormalized()) {
+			permutation.applyTo(stickers, tracker);
+		} else {
+			permutation.applyTo(stickers, sides, tracker);
+		}
+	}
+
+	/**
+	 * Sets whether the stickers moved by a single rotation or permutation are moved by several threads.
+	 *
+	 * <p>
+	 * In parallel mode the rotations and permutations that move at least {@link #DEFAULT_PARALLEL_THRESHOLD} stickers are applied by the threads of the common {@link ForkJoinPool}, the smaller ones are still applied by the calling thread. This only pays off for very large cubes, where a single layer has tens of thousands of stickers. Turning the most outer layers only changes the orientation of the sides, see {@link Side}, so that needs no parallel work. The parallel mode is turned off by default, and is not serialized with the cube.</p>
+	 *
+	 * @param parallel {@code true} to turn on the parallel mode, {@code false} to turn it off
+	 * @see #setParallelThreshold(int)
+	 */
+	public void setParallel(boolean parallel) {
+		parallelThreshold = parallel ? DEFAULT_PARALLEL_THRESHOLD : 0;
+	}
+
+	/**
+	 * Turns on the parallel mode with the specified {@code threshold}.
+	 *
+	 * @param threshold The number of moved stickers from which a rotation or permutation is applied in parallel, must be positive
+	 * @see #setParallel(boolean)
+	 */
+	public void setParallelThreshold(int threshold) {
+		if (threshold < 1) {
+			logger.error("Invalid parallel threshold {}", threshold);
+			return;
+		}
+		parallelThreshold = threshold;
+	}
+
+	/**
+	 * Returns whether the parallel mode is turned on.
+	 *
+	 * @return {@code true} if large rotations are applied in parallel, {@code false} otherwise
+	 */
+	public boolean isParallel() {
+		return parallelThreshold > 0;
+	}
+
+	private void notifyIfSolved(boolean wasSolved) {
+		if (!wasSolved && tracker.isSolved()) {
+			logger.info("Cube solved");
+			if (onSolved != null) {
+				onSolved.run();
+			}
+		}
+	}
+
+	/**
+	 * Sets the action to be run when the cube becomes solved.
+	 *
+	 * <p>
+	 * The action is run after a rotation or a permutation that solves the cube, see {@link #rotate(Rotation)} and {@link #apply(Permutation)}.</p>
+	 *
+	 * @param onSolved The action to be run, or {@code null} if nothing should be run
+	 */
+	public void setOnSolved(Runnable onSolved) {
+		this.onSolved = onSolved;
+	}
+
+	/**
+	 * Returns whether the cube is solved.
+	 *
+	 * <p>
+	 * The cube is solved if each of its sides has only one color. The number of stickers of each color on each side is maintained while the cube is rotated, so this method takes constant time.</p>
+	 *
+	 * @return {@code true} if the cube is solved, {@code false} otherwise
+	 */
+	public boolean isSolved() {
+		getSides();
+		return tracker.isSolved();
+	}
+
+	/**
+	 * Returns how much of the side at the specified {@code position} is solved, in percents.
+	 *
+	 * <p>
+	 * The percentage is the share of the stickers on the side that have the most frequent color of the side. This method takes constant time.</p>
+	 *
+	 * @param position The position of the side
+	 * @return The percentage of the stickers with the most frequent color if the specified {@code position} is valid, otherwise -1
+	 */
+	public double getCompletionPercentage(char position) {
+
+		int index = position < SIDE_INDICES.length ? SIDE_INDICES[position] : -1;
+		if (index < 0) {
+			logger.debug("Invalid sideposition {}", position);
+			return -1;
+		}
+		getSides();
+		return 100.0 * tracker.getMatchCount(layout[index]) / (cubeSize * cubeSize);
+	}
+
+	private void rotateWholeCube(Rotation rotation) {
+
+		int axis = rotation.getCubeRotationAxis();
+		int[] cycle = CUBE_ROTATION_CYCLES[axis];
+		int[] turns = CUBE_ROTATION_TURNS[axis];
+		Side[] sides = getSides();
+
+		for (int k = 0; k < rotation.getQuarterTurns(); ++k) {
+			Side firstSide = sides[cycle[0]];
+			byte firstStoredSide = layout[cycle[0]];
+			for (int i = 0; i < cycle.length - 1; ++i) {
+				sides[cycle[i]] = sides[cycle[i + 1]];
+				layout[cycle[i]] = layout[cycle[i + 1]];
 			}
+			sides[cycle[cycle.length - 1]] = firstSide;
+			layout[cycle[cycle.length - 1]] = firstStoredSide;
 
-			switch (rotationType) {
-				case "R2":
-				case "R":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('U').getColorAt(i, last - layerNr);
-
-						getSideAt('U').setColorAt(i, last - layerNr,
-								getSideAt('F').getColorAt(i, last - layerNr));
-						getSideAt('F').setColorAt(i, last - layerNr,
-								getSideAt('D').getColorAt(i, last - layerNr));
-						getSideAt('D').setColorAt(i, last - layerNr,
-								getSideAt('B').getColorAt(last - i, 0 + layerNr));
-						getSideAt('B').setColorAt(last - i, 0 + layerNr,
-								tempColor);
-					}
-					break;
-				case "R'":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('U').getColorAt(i, last - layerNr);
-
-						getSideAt('U').setColorAt(i, last - layerNr,
-								getSideAt('B').getColorAt(last - i, layerNr));
-						getSideAt('B').setColorAt(last - i, layerNr,
-								getSideAt('D').getColorAt(i, last - layerNr));
-						getSideAt('D').setColorAt(i, last - layerNr,
-								getSideAt('F').getColorAt(i, last - layerNr));
-						getSideAt('F').setColorAt(i, last - layerNr,
-								tempColor);
-					}
-					break;
-				case "U2":
-				case "U":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('F').getColorAt(layerNr, i);
-
-						getSideAt('F').setColorAt(layerNr, i,
-								getSideAt('R').getColorAt(layerNr, i));
-						getSideAt('R').setColorAt(layerNr, i,
-								getSideAt('B').getColorAt(layerNr, i));
-						getSideAt('B').setColorAt(layerNr, i,
-								getSideAt('L').getColorAt(layerNr, i));
-						getSideAt('L').setColorAt(layerNr, i,
-								tempColor);
-					}
-
-					break;
-				case "U'":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('F').getColorAt(layerNr, i);
-
-						getSideAt('F').setColorAt(layerNr, i,
-								getSideAt('L').getColorAt(layerNr, i));
-						getSideAt('L').setColorAt(layerNr, i,
-								getSideAt('B').getColorAt(layerNr, i));
-						getSideAt('B').setColorAt(layerNr, i,
-								getSideAt('R').getColorAt(layerNr, i));
-						getSideAt('R').setColorAt(layerNr, i,
-								tempColor);
-					}
-
-					break;
-				case "F2":
-				case "F":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('U').getColorAt(last - layerNr, i);
-
-						getSideAt('U').setColorAt(last - layerNr, i,
-								getSideAt('L').getColorAt(last - i, last - layerNr));
-						getSideAt('L').setColorAt(last - i, last - layerNr,
-								getSideAt('D').getColorAt(layerNr, last - i));
-						getSideAt('D').setColorAt(layerNr, last - i,
-								getSideAt('R').getColorAt(i, layerNr));
-						getSideAt('R').setColorAt(i, layerNr, tempColor);
-
-					}
-					break;
-				case "F'":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('U').getColorAt(last - layerNr, i);
-
-						getSideAt('U').setColorAt(last - layerNr, i,
-								getSideAt('R').getColorAt(i, layerNr));
-						getSideAt('R').setColorAt(i, layerNr,
-								getSideAt('D').getColorAt(layerNr, last - i));
-						getSideAt('D').setColorAt(layerNr, last - i,
-								getSideAt('L').getColorAt(last - i, last - layerNr));
-						getSideAt('L').setColorAt(last - i, last - layerNr, tempColor);
-					}
-					break;
-				case "L2":
-				case "L":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('U').getColorAt(i, layerNr);
-
-						getSideAt('U').setColorAt(i, layerNr,
-								getSideAt('B').getColorAt(last - i, last - layerNr));
-						getSideAt('B').setColorAt(last - i, last - layerNr,
-								getSideAt('D').getColorAt(i, layerNr));
-						getSideAt('D').setColorAt(i, layerNr,
-								getSideAt('F').getColorAt(i, layerNr));
-						getSideAt('F').setColorAt(i, layerNr, tempColor);
-					}
-					break;
-				case "L'":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('U').getColorAt(i, layerNr);
-
-						getSideAt('U').setColorAt(i, layerNr,
-								getSideAt('F').getColorAt(i, layerNr));
-						getSideAt('F').setColorAt(i, layerNr,
-								getSideAt('D').getColorAt(i, layerNr));
-						getSideAt('D').setColorAt(i, layerNr,
-								getSideAt('B').getColorAt(last - i, last - layerNr));
-						getSideAt('B').setColorAt(last - i, last - layerNr, tempColor);
-					}
-					break;
-				case "D2":
-				case "D":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('F').getColorAt(last - layerNr, i);
-
-						getSideAt('F').setColorAt(last - layerNr, i,
-								getSideAt('L').getColorAt(last - layerNr, i));
-						getSideAt('L').setColorAt(last - layerNr, i,
-								getSideAt('B').getColorAt(last - layerNr, i));
-						getSideAt('B').setColorAt(last - layerNr, i,
-								getSideAt('R').getColorAt(last - layerNr, i));
-						getSideAt('R').setColorAt(last - layerNr, i, tempColor);
-					}
-					break;
-				case "D'":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('F').getColorAt(last - layerNr, i);
-
-						getSideAt('F').setColorAt(last - layerNr, i,
-								getSideAt('R').getColorAt(last - layerNr, i));
-						getSideAt('R').setColorAt(last - layerNr, i,
-								getSideAt('B').getColorAt(last - layerNr, i));
-						getSideAt('B').setColorAt(last - layerNr, i,
-								getSideAt('L').getColorAt(last - layerNr, i));
-						getSideAt('L').setColorAt(last - layerNr, i, tempColor);
-					}
-					break;
-				case "B2":
-				case "B":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('U').getColorAt(layerNr, i);
-
-						getSideAt('U').setColorAt(layerNr, i,
-								getSideAt('R').getColorAt(i, last - layerNr));
-						getSideAt('R').setColorAt(i, last - layerNr,
-								getSideAt('D').getColorAt(last - layerNr, last - i));
-						getSideAt('D').setColorAt(last - layerNr, last - i,
-								getSideAt('L').getColorAt(last - i, layerNr));
-						getSideAt('L').setColorAt(last - i, layerNr, tempColor);
-					}
-					break;
-				case "B'":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('U').getColorAt(layerNr, i);
-
-						getSideAt('U').setColorAt(layerNr, i,
-								getSideAt('L').getColorAt(last - i, layerNr));
-						getSideAt('L').setColorAt(last - i, layerNr,
-								getSideAt('D').getColorAt(last - layerNr, last - i));
-						getSideAt('D').setColorAt(last - layerNr, last - i,
-								getSideAt('R').getColorAt(i, last - layerNr));
-						getSideAt('R').setColorAt(i, last - layerNr, tempColor);
-					}
-					break;
-				case "E2":
-				case "E":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('F').getColorAt(middleRowCol, i);
-
-						getSideAt('F').setColorAt(middleRowCol, i,
-								getSideAt('R').getColorAt(middleRowCol, i));
-						getSideAt('R').setColorAt(middleRowCol, i,
-								getSideAt('B').getColorAt(middleRowCol, i));
-						getSideAt('B').setColorAt(middleRowCol, i,
-								getSideAt('L').getColorAt(middleRowCol, i));
-						getSideAt('L').setColorAt(middleRowCol, i, tempColor);
-					}
-					break;
-				case "E'":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('F').getColorAt(middleRowCol, i);
-
-						getSideAt('F').setColorAt(middleRowCol, i,
-								getSideAt('L').getColorAt(middleRowCol, i));
-						getSideAt('L').setColorAt(middleRowCol, i,
-								getSideAt('B').getColorAt(middleRowCol, i));
-						getSideAt('B').setColorAt(middleRowCol, i,
-								getSideAt('R').getColorAt(middleRowCol, i));
-						getSideAt('R').setColorAt(middleRowCol, i, tempColor);
-					}
-					break;
-				case "M2":
-				case "M":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('F').getColorAt(i, middleRowCol);
-
-						getSideAt('F').setColorAt(i, middleRowCol,
-								getSideAt('U').getColorAt(i, middleRowCol));
-						getSideAt('U').setColorAt(i, middleRowCol,
-								getSideAt('B').getColorAt(cubeSize - i - 1, middleRowCol));
-						getSideAt('B').setColorAt(cubeSize - i - 1, middleRowCol,
-								getSideAt('D').getColorAt(i, middleRowCol));
-						getSideAt('D').setColorAt(i, middleRowCol, tempColor);
-					}
-					break;
-				case "M'":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('F').getColorAt(i, middleRowCol);
-
-						getSideAt('F').setColorAt(i, middleRowCol,
-								getSideAt('D').getColorAt(i, middleRowCol));
-						getSideAt('D').setColorAt(i, middleRowCol,
-								getSideAt('B').getColorAt(cubeSize - i - 1, middleRowCol));
-						getSideAt('B').setColorAt(cubeSize - i - 1, middleRowCol,
-								getSideAt('U').getColorAt(i, middleRowCol));
-						getSideAt('U').setColorAt(i, middleRowCol, tempColor);
-					}
-					break;
-				case "S2":
-				case "S":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('U').getColorAt(middleRowCol, i);
-
-						getSideAt('U').setColorAt(middleRowCol, i,
-								getSideAt('L').getColorAt(cubeSize - i - 1, middleRowCol));
-						getSideAt('L').setColorAt(cubeSize - i - 1, middleRowCol,
-								getSideAt('D').getColorAt(middleRowCol, cubeSize - i - 1));
-						getSideAt('D').setColorAt(middleRowCol, cubeSize - i - 1,
-								getSideAt('R').getColorAt(i, middleRowCol));
-						getSideAt('R').setColorAt(i, middleRowCol, tempColor);
-					}
-					break;
-				case "S'":
-					for (int i = 0; i < cubeSize; ++i) {
-						tempColor = getSideAt('U').getColorAt(middleRowCol, i);
-
-						getSideAt('U').setColorAt(middleRowCol, i,
-								getSideAt('R').getColorAt(i, middleRowCol));
-						getSideAt('R').setColorAt(i, middleRowCol,
-								getSideAt('D').getColorAt(middleRowCol, cubeSize - i - 1));
-						getSideAt('D').setColorAt(middleRowCol, cubeSize - i - 1,
-								getSideAt('L').getColorAt(cubeSize - i - 1, middleRowCol));
-						getSideAt('L').setColorAt(cubeSize - i - 1, middleRowCol, tempColor);
-					}
-					break;
-				default:
-					logger.error("Invalid rotation type {}", rotationType);
-					break;
+			for (int i = 0; i < cycle.length; ++i) {
+				sides[cycle[i]].turn(turns[i]);
 			}
+			sides[CUBE_ROTATION_AXIS_SIDES[axis][0]].turn(1);
+			sides[CUBE_ROTATION_AXIS_SIDES[axis][1]].turn(3);
+		}
+
+		for (int i : cycle) {
+			sides[i].setPosition(SIDE_POSITIONS[i]);
 		}
-		logger.info("Cube was rotated with rotation {}", rotationName);
+	}
+
+	private boolean isNormalized() {
+		for (int i = 0; i < NUMBER_OF_SIDES; ++i) {
+			if (orientations[i] != 0 || layout[i] != i) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Rotates the stored stickers of each side of the cube according to the orientation of the side.
+	 *
+	 * <p>
+	 * Rotating the most outer layer only changes the orientation of the rotated side, see {@link Side}, and rotating the whole cube only changes which stored side is at which position. After calling this method the sticker array of the cube is in the same order as if each side had been rotated sticker by sticker.</p>
+	 */
+	public void normalize() {
+
+		for (Side side : getSides()) {
+			side.normalize();
+		}
+
+		if (!isNormalized()) {
+			int sideArea = cubeSize * cubeSize;
+			byte[] oldStickers = stickers.clone();
+			for (int i = 0; i < NUMBER_OF_SIDES; ++i) {
+				System.arraycopy(oldStickers, layout[i] * sideArea, stickers, i * sideArea, sideArea);
+			}
+			resetLayout();
+			tracker = null;
+			createSides();
+		}
+		logger.debug("Cube normalized");
+	}
+
+	/**
+	 * Returns an immutable snapshot of the current state of the cube.
+	 *
+	 * <p>
+	 * Only the sides whose stickers changed since the previous snapshot of this cube are copied, the other sides are shared with the previous snapshot, so keeping many snapshots of a cube needs little memory.</p>
+	 *
+	 * @return The snapshot of the cube
+	 * @see #restore(CubeSnapshot)
+	 */
+	public CubeSnapshot snapshot() {
+		getSides();
+		int changedSides = tracker.takeChangedSides();
+		if (lastSnapshot == null) {
+			changedSides = (1 << NUMBER_OF_SIDES) - 1;
+		}
+		lastSnapshot = new CubeSnapshot(lastSnapshot, changedSides, stickers, cubeSize, orientations, layout, tracker);
+		logger.debug("Snapshot taken of cube {}", cubeSize);
+		return lastSnapshot;
+	}
+
+	/**
+	 * Sets the cube to the state of the specified {@code snapshot}.
+	 *
+	 * @param snapshot The snapshot of a cube with the same size
+	 * @see #snapshot()
+	 */
+	public void restore(CubeSnapshot snapshot) {
+
+		if (snapshot.getCubeSize() != cubeSize) {
+			logger.error("Snapshot of cube {} can't be restored to cube {}", snapshot.getCubeSize(), cubeSize);
+			return;
+		}
+
+		snapshot.copyTo(stickers, orientations, layout);
+		tracker = new StateTracker(snapshot.getTracker(), stickers);
+		lastSnapshot = snapshot;
+		createSides();
+		clearJournal();
+		logger.info("Cube restored from snapshot");
+	}
+
+	private MoveTable getMoveTable() {
+		if (moveTable == null) {
+			moveTable = MoveTable.forCubeSize(cubeSize);
+		}
+		return moveTable;
 	}
 
 	/**
@@ -393,14 +826,10 @@ public class Cube {
 	 *
 	 * @param scrambler A {@link Scrambler} that contains the scramble
 	 * @see Scrambler
+	 * @see MoveTable#compose(Rotation[])
 	 */
 	public void scramble(Scrambler scrambler) {
-
-		Rotation[] scramble = scrambler.getScramble();
-
-		for (int i = 0; i < scramble.length; ++i) {
-			rotate(scramble[i]);
-		}
+		apply(getMoveTable().compose(scrambler.getScramble()));
 		logger.info("Cube scrambled");
 	}
 
@@ -412,14 +841,12 @@ public class Cube {
 	 */
 	public Side getSideAt(char position) {
 
-		for (int i = 0; i < NUMBER_OF_SIDES; ++i) {
-			if (sides[i].getPosition() == position) {
-				return sides[i];
-			}
+		int index = position < SIDE_INDICES.length ? SIDE_INDICES[position] : -1;
+		if (index < 0) {
+			logger.debug("Invalid sideposition {}", position);
+			return null;
 		}
-
-		logger.debug("Invalid sideposition {}", position);
-		return null;
+		return getSides()[index];
 	}
 
 	/**
@@ -428,7 +855,10 @@ public class Cube {
 	 * @return The sides of the cube
 	 */
 	public Side[] getSides() {
-		return sides;
+		if (sideViews == null) {
+			createSides();
+		}
+		return sideViews;
 	}
 
 	/**
@@ -440,6 +870,63 @@ public class Cube {
 		return cubeSize;
 	}
 
+	/**
+	 * Returns the 64-bit hash of the state of the cube.
+	 *
+	 * <p>
+	 * The hash only depends on the size of the cube and the colors at each position, so cubes in the same state have the same hash. The hash is maintained while the cube is rotated, so this method takes constant time.</p>
+	 *
+	 * @return The hash of the state of the cube
+	 */
+	public long getStateHash() {
+		getSides();
+		return tracker.getHash(layout, orientations);
+	}
+
+	/**
+	 * Returns the hash code of this cube, which is derived from {@link #getStateHash()}.
+	 *
+	 * @return The hash code of this cube
+	 */
+	@Override
+	public int hashCode() {
+		long stateHash = getStateHash();
+		return (int) (stateHash ^ (stateHash >>> 32));
+	}
+
+	/**
+	 * Returns whether {@code object} is a {@link Cube} with the same size and the same colors at each position as this cube.
+	 *
+	 * <p>
+	 * The colors are compared only if the hashes of the states of the cubes are the same.</p>
+	 *
+	 * @param object The object to compare with
+	 * @return {@code true} if {@code object} is a cube in the same state, {@code false} otherwise
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		}
+		if (!(object instanceof Cube)) {
+			return false;
+		}
+		Cube other = (Cube) object;
+		if (getStateHash() != other.getStateHash() || cubeSize != other.cubeSize) {
+			return false;
+		}
+
+		Side[] otherSides = other.getSides();
+		for (int i = 0; i < NUMBER_OF_SIDES; ++i) {
+			for (int index = 0; index < cubeSize * cubeSize; ++index) {
+				if (stickers[sideViews[i].physicalIndex(index)] != other.stickers[otherSides[i].physicalIndex(index)]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Returns the string representation of this {@link Cube} object.
 	 *
@@ -450,10 +937,19 @@ public class Cube {
 
 		String cubeAsString = "";
 
-		for (int i = 0; i < NUMBER_OF_SIDES; ++i) {
-			cubeAsString += sides[i] + "\n";
+		for (Side side : getSides()) {
+			cubeAsString += side + "\n";
 		}
 
 		return cubeAsString;
 	}
+
+	/**
+	 * A side of a cube as it was saved before the stickers were stored in a single array.
+	 */
+	private static final class LegacySide {
+
+		private StickerColor[][] colors;
+		private char position;
+	}
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+/**
+ * This class represents an immutable snapshot of the state of a {@link Cube}.
+ *
+ * <p>
+ * A snapshot stores the stickers of each side in a separate array. The sides that didn't change since the previous snapshot of the same cube share their arrays with the previous snapshot, so a series of snapshots only costs the sides changed between them. For example, the snapshots before and after rotating the layer {@code 2R} share the sides {@code R} and {@code L}.</p>
+ * <p>
+ * Snapshots are taken with {@link Cube#snapshot()}, and can be turned back into a cube with {@link Cube#restore(CubeSnapshot)} or {@link #toCube()}.</p>
+ *
+ * @author kinga
+ */
+public class CubeSnapshot {
+
+	private final int cubeSize;
+	private final byte[][] sides = new byte[Cube.NUMBER_OF_SIDES][];
+	private final byte[] orientations;
+	private final byte[] layout;
+	private final StateTracker tracker;
+
+	/**
+	 * Creates a snapshot from the state of a cube.
+	 *
+	 * @param previous The previous snapshot of the cube, or {@code null} if there's none
+	 * @param changedSides The bit mask of the stored sides changed since the {@code previous} snapshot, see {@link StateTracker#takeChangedSides()}
+	 */
+	CubeSnapshot(CubeSnapshot previous, int changedSides, byte[] stickers, int cubeSize, byte[] orientations, byte[] layout,
+			StateTracker tracker) {
+
+		this.cubeSize = cubeSize;
+		int sideArea = cubeSize * cubeSize;
+		for (int side = 0; side < Cube.NUMBER_OF_SIDES; ++side) {
+			if ((changedSides & (1 << side)) != 0) {
+				sides[side] = new byte[sideArea];
+				System.arraycopy(stickers, side * sideArea, sides[side], 0, sideArea);
+			} else {
+				sides[side] = previous.sides[side];
+			}
+		}
+		this.orientations = orientations.clone();
+		this.layout = layout.clone();
+		this.tracker = new StateTracker(tracker, null);
+	}
+
+	/**
+	 * Copies the state stored in the snapshot into the arrays of a cube.
+	 */
+	void copyTo(byte[] stickers, byte[] orientations, byte[] layout) {
+		int sideArea = cubeSize * cubeSize;
+		for (int side = 0; side < Cube.NUMBER_OF_SIDES; ++side) {
+			System.arraycopy(sides[side], 0, stickers, side * sideArea, sideArea);
+		}
+		System.arraycopy(this.orientations, 0, orientations, 0, orientations.length);
+		System.arraycopy(this.layout, 0, layout, 0, layout.length);
+	}
+
+	StateTracker getTracker() {
+		return tracker;
+	}
+
+	/**
+	 * Returns whether the specified stored side is shared with the {@code other} snapshot.
+	 *
+	 * @param other The other snapshot
+	 * @param side The index of the side in the order the cube stores its sides
+	 * @return {@code true} if both snapshots use the same array for the side, {@code false} otherwise
+	 */
+	boolean isSharedWith(CubeSnapshot other, int side) {
+		return sides[side] == other.sides[side];
+	}
+
+	/**
+	 * Returns the size of the cube.
+	 *
+	 * @return The size of the cube
+	 */
+	public int getCubeSize() {
+		return cubeSize;
+	}
+
+	/**
+	 * Returns the 64-bit hash of the state stored in the snapshot.
+	 *
+	 * @return The hash of the state, the same as {@link Cube#getStateHash()} returned when the snapshot was taken
+	 */
+	public long getStateHash() {
+		return tracker.getHash(layout, orientations);
+	}
+
+	/**
+	 * Returns whether the cube was solved when the snapshot was taken.
+	 *
+	 * @return {@code true} if the cube was solved, {@code false} otherwise
+	 */
+	public boolean isSolved() {
+		return tracker.isSolved();
+	}
+
+	/**
+	 * Creates a new cube in the state stored in the snapshot.
+	 *
+	 * @return A new cube in the state of the snapshot
+	 */
+	public Cube toCube() {
+		Cube cube = new Cube(cubeSize);
+		cube.restore(this);
+		return cube;
+	}
+}
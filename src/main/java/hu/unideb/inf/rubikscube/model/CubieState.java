@@ -0,0 +1,457 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class represents the state of a 2x2 or 3x3 cube by the positions and the orientations of its corners and edges.
+ *
+ * <p>
+ * The corners are numbered {@code URF, UFL, ULB, UBR, DFR, DLF, DBL, DRB}, and the edges {@code UR, UF, UL, UB, DR, DF, DL, DB, FR, FL, BL, BR}. For each position the state holds the number of the piece at that position, and how many times it's twisted clockwise, or whether it's flipped. The stickers of a corner are listed clockwise starting with its {@code U} or {@code D} sticker, and the stickers of an edge start with its {@code U, D}, or for the middle layer edges its {@code F} or {@code B} sticker. A piece is not twisted or flipped if this first sticker is on the first sticker of its position.</p>
+ * <p>
+ * A state is reachable from the solved state with rotations if and only if the permutations of the corners and the edges have the same parity, the twists of the corners add up to a multiple of 3, and the number of flipped edges is even. The 2x2 cube only has corners, so its corner permutation can have any parity.</p>
+ * <p>
+ * The corners of bigger cubes, and the middle edges of bigger cubes with an odd size behave the same way, so their stickers can be set from a state too.</p>
+ *
+ * @author kinga
+ */
+final class CubieState {
+
+	static final int CORNERS = 8;
+	static final int EDGES = 12;
+	static final int TWISTS = 3;
+	static final int FLIPS = 2;
+	static final int DBL = 6;
+
+	//The side, the row and the column of the stickers of each corner and edge on a 3x3 cube,
+	//the row and the column 2 means the last one on any cube
+	private static final int[][][] CORNER_STICKERS = {
+		{{0, 2, 2}, {4, 0, 0}, {1, 0, 2}}, {{0, 2, 0}, {1, 0, 0}, {5, 0, 2}},
+		{{0, 0, 0}, {5, 0, 0}, {3, 0, 2}}, {{0, 0, 2}, {3, 0, 0}, {4, 0, 2}},
+		{{2, 0, 2}, {1, 2, 2}, {4, 2, 0}}, {{2, 0, 0}, {5, 2, 2}, {1, 2, 0}},
+		{{2, 2, 0}, {3, 2, 2}, {5, 2, 0}}, {{2, 2, 2}, {4, 2, 2}, {3, 2, 0}}
+	};
+	private static final int[][][] EDGE_STICKERS = {
+		{{0, 1, 2}, {4, 0, 1}}, {{0, 2, 1}, {1, 0, 1}}, {{0, 1, 0}, {5, 0, 1}}, {{0, 0, 1}, {3, 0, 1}},
+		{{2, 1, 2}, {4, 2, 1}}, {{2, 0, 1}, {1, 2, 1}}, {{2, 1, 0}, {5, 2, 1}}, {{2, 2, 1}, {3, 2, 1}},
+		{{1, 1, 2}, {4, 1, 0}}, {{1, 1, 0}, {5, 1, 2}}, {{3, 1, 2}, {5, 1, 0}}, {{3, 1, 0}, {4, 1, 2}}
+	};
+	//Whether the rows or the columns of the two stickers of each edge are numbered in opposite directions along the edge
+	private static final boolean[] EDGE_REVERSED = {
+		true, false, false, true, false, false, true, true, false, false, false, false
+	};
+
+	//The states caused by the rotations of the outer layers, indexed by the type indices of the rotations
+	private static final int OUTER_LAYER_TYPES = 18;
+
+	final byte[] cornerPermutation = new byte[CORNERS];
+	final byte[] cornerTwists = new byte[CORNERS];
+	final byte[] edgePermutation = new byte[EDGES];
+	final byte[] edgeFlips = new byte[EDGES];
+
+	private static Logger logger = LoggerFactory.getLogger(CubieState.class);
+
+	/**
+	 * Creates the solved state.
+	 */
+	CubieState() {
+		for (int i = 0; i < CORNERS; ++i) {
+			cornerPermutation[i] = (byte) i;
+		}
+		for (int i = 0; i < EDGES; ++i) {
+			edgePermutation[i] = (byte) i;
+		}
+	}
+
+	/**
+	 * Creates a copy of the {@code other} state.
+	 *
+	 * @param other The state to be copied
+	 */
+	CubieState(CubieState other) {
+		System.arraycopy(other.cornerPermutation, 0, cornerPermutation, 0, CORNERS);
+		System.arraycopy(other.cornerTwists, 0, cornerTwists, 0, CORNERS);
+		System.arraycopy(other.edgePermutation, 0, edgePermutation, 0, EDGES);
+		System.arraycopy(other.edgeFlips, 0, edgeFlips, 0, EDGES);
+	}
+
+	/**
+	 * Returns the state caused by the rotation of an outer layer with the specified {@code typeIndex} on the solved cube.
+	 *
+	 * <p>
+	 * The states are read from the stickers moved by the {@link MoveTable} of the 3x3 cube, so they always agree with the rotations of a {@link Cube}.</p>
+	 *
+	 * @param typeIndex The type index of a rotation of {@code R, U, F, L, D} or {@code B}, see {@link Rotation#getTypeIndex()}
+	 * @return The state after the rotation
+	 */
+	static CubieState forRotation(int typeIndex) {
+		return RotationStates.STATES[typeIndex];
+	}
+
+	/**
+	 * The states of the rotations are built when the first one is needed, and the initialization of the class makes them visible to every thread.
+	 */
+	private static final class RotationStates {
+
+		private static final CubieState[] STATES = new CubieState[OUTER_LAYER_TYPES];
+
+		static {
+			MoveTable moveTable = MoveTable.forCubeSize(3);
+			for (int typeIndex = 0; typeIndex < OUTER_LAYER_TYPES; ++typeIndex) {
+				byte[] stickers = solvedStickers(3);
+				moveTable.getPermutation(Rotation.of(1, typeIndex)).applyTo(stickers);
+				STATES[typeIndex] = fromStickers(stickers, 3, defaultSideColors());
+			}
+		}
+	}
+
+	/**
+	 * Returns the state of the solved cube after this state and then the {@code next} state.
+	 *
+	 * @param next The state applied after this one
+	 * @return The composite state
+	 */
+	CubieState then(CubieState next) {
+
+		CubieState result = new CubieState();
+		for (int i = 0; i < CORNERS; ++i) {
+			int from = next.cornerPermutation[i];
+			result.cornerPermutation[i] = cornerPermutation[from];
+			result.cornerTwists[i] = (byte) ((cornerTwists[from] + next.cornerTwists[i]) % TWISTS);
+		}
+		for (int i = 0; i < EDGES; ++i) {
+			int from = next.edgePermutation[i];
+			result.edgePermutation[i] = edgePermutation[from];
+			result.edgeFlips[i] = (byte) ((edgeFlips[from] + next.edgeFlips[i]) % FLIPS);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a uniformly random state that is reachable with rotations on a cube with a size {@code cubeSize}.
+	 *
+	 * <p>
+	 * The pieces are shuffled and the orientations are chosen independently, then the orientation of the last piece makes the sum of the orientations valid, and if the parities of the permutations differ, two edges are swapped. On the 2x2 cube the corner {@code DBL} is kept in place, because every state of the 2x2 cube can be turned into a state with a solved {@code DBL} by rotating the whole cube.</p>
+	 *
+	 * @param random The random generator
+	 * @param cubeSize The size of the cube, 2 or 3
+	 * @return The random state
+	 */
+	static CubieState random(SplittableRandom random, int cubeSize) {
+
+		CubieState state = new CubieState();
+		int fixedCorner = cubeSize == 2 ? DBL : -1;
+		shuffle(state.cornerPermutation, fixedCorner, random);
+		randomizeOrientations(state.cornerTwists, fixedCorner, TWISTS, random);
+		if (cubeSize == 2) {
+			return state;
+		}
+
+		shuffle(state.edgePermutation, -1, random);
+		randomizeOrientations(state.edgeFlips, -1, FLIPS, random);
+		if (parity(state.cornerPermutation) != parity(state.edgePermutation)) {
+			byte temp = state.edgePermutation[0];
+			state.edgePermutation[0] = state.edgePermutation[1];
+			state.edgePermutation[1] = temp;
+		}
+		return state;
+	}
+
+	/**
+	 * Shuffles the {@code pieces} with the Fisher-Yates algorithm, keeping the piece at the position {@code fixed} in place.
+	 */
+	private static void shuffle(byte[] pieces, int fixed, SplittableRandom random) {
+		for (int i = pieces.length - 1; i > 0; --i) {
+			if (i == fixed) {
+				continue;
+			}
+			boolean isFixedBefore = fixed >= 0 && fixed < i;
+			int j = random.nextInt(isFixedBefore ? i : i + 1);
+			if (isFixedBefore && j >= fixed) {
+				++j;
+			}
+			byte temp = pieces[i];
+			pieces[i] = pieces[j];
+			pieces[j] = temp;
+		}
+	}
+
+	/**
+	 * Chooses random {@code orientations} with a sum divisible by {@code count}, keeping the orientation at the position {@code fixed} 0.
+	 */
+	private static void randomizeOrientations(byte[] orientations, int fixed, int count, SplittableRandom random) {
+		int sum = 0;
+		int last = fixed == orientations.length - 1 ? orientations.length - 2 : orientations.length - 1;
+		for (int i = 0; i < last; ++i) {
+			if (i != fixed) {
+				orientations[i] = (byte) random.nextInt(count);
+				sum += orientations[i];
+			}
+		}
+		orientations[last] = (byte) ((count - sum % count) % count);
+	}
+
+	/**
+	 * Returns the parity of the {@code permutation}, 0 if it's even, 1 if it's odd.
+	 *
+	 * @param permutation The permutation
+	 * @return The parity of {@code permutation}
+	 */
+	static int parity(byte[] permutation) {
+		int parity = 0;
+		for (int i = 0; i < permutation.length; ++i) {
+			for (int j = i + 1; j < permutation.length; ++j) {
+				if (permutation[i] > permutation[j]) {
+					parity ^= 1;
+				}
+			}
+		}
+		return parity;
+	}
+
+	/**
+	 * Returns whether this state can be reached from the solved state with rotations on a cube with a size {@code cubeSize}.
+	 *
+	 * @param cubeSize The size of the cube, 2 or 3
+	 * @return {@code true} if the state is reachable, {@code false} otherwise
+	 */
+	boolean isReachable(int cubeSize) {
+		int twists = 0;
+		for (byte twist : cornerTwists) {
+			twists += twist;
+		}
+		if (twists % TWISTS != 0) {
+			return false;
+		}
+		if (cubeSize == 2) {
+			return true;
+		}
+		int flips = 0;
+		for (byte flip : edgeFlips) {
+			flips += flip;
+		}
+		return flips % FLIPS == 0 && parity(cornerPermutation) == parity(edgePermutation);
+	}
+
+	/**
+	 * Returns the sticker array of the solved cube with a size {@code cubeSize}, in the order of a normalized cube.
+	 *
+	 * @param cubeSize The size of the cube
+	 * @return The stickers of the solved cube
+	 */
+	static byte[] solvedStickers(int cubeSize) {
+		int sideArea = cubeSize * cubeSize;
+		byte[] stickers = new byte[Cube.NUMBER_OF_SIDES * sideArea];
+		for (int i = 0; i < Cube.NUMBER_OF_SIDES; ++i) {
+			Arrays.fill(stickers, i * sideArea, (i + 1) * sideArea, (byte) Cube.SIDE_COLORS[i].ordinal());
+		}
+		return stickers;
+	}
+
+	/**
+	 * Returns the colors of the sides of the solved cube as ordinals of {@link StickerColor}, in the order the sides are stored.
+	 *
+	 * @return The default colors of the sides
+	 */
+	static byte[] defaultSideColors() {
+		byte[] sideColors = new byte[Cube.NUMBER_OF_SIDES];
+		for (int i = 0; i < Cube.NUMBER_OF_SIDES; ++i) {
+			sideColors[i] = (byte) Cube.SIDE_COLORS[i].ordinal();
+		}
+		return sideColors;
+	}
+
+	/**
+	 * Returns the index of the {@code sticker} of the {@code corner} in the sticker array of a cube with a size {@code cubeSize}.
+	 *
+	 * @param corner The number of the corner
+	 * @param sticker The number of the sticker of the corner
+	 * @param cubeSize The size of the cube
+	 * @return The index of the sticker
+	 */
+	static int cornerStickerIndex(int corner, int sticker, int cubeSize) {
+		int[] position = CORNER_STICKERS[corner][sticker];
+		int last = cubeSize - 1;
+		return position[0] * cubeSize * cubeSize + position[1] / 2 * last * cubeSize + position[2] / 2 * last;
+	}
+
+	/**
+	 * Returns the side of the {@code sticker} of the {@code edge} on the solved cube.
+	 *
+	 * @param edge The number of the edge
+	 * @param sticker The number of the sticker of the edge
+	 * @return The index of the side in the order the sides are stored
+	 */
+	static int getEdgeSide(int edge, int sticker) {
+		return EDGE_STICKERS[edge][sticker][0];
+	}
+
+	/**
+	 * Returns the index of the {@code sticker} of the {@code edge} in the sticker array of a cube with a size {@code cubeSize}, at the specified {@code position} along the edge.
+	 *
+	 * <p>
+	 * The {@code position} is the row or the column of the first sticker of the edge on its side, the second sticker is next to it on the other side. On a cube with an odd size the middle edges are at the position {@code (cubeSize - 1) / 2}, the other positions are the positions of the edge pieces of bigger cubes.</p>
+	 *
+	 * @param edge The number of the edge
+	 * @param sticker The number of the sticker of the edge
+	 * @param position The position along the edge, from 1 to {@code cubeSize - 2}
+	 * @param cubeSize The size of the cube
+	 * @return The index of the sticker
+	 */
+	static int edgeStickerIndex(int edge, int sticker, int position, int cubeSize) {
+		int[] coordinates = EDGE_STICKERS[edge][sticker];
+		int last = cubeSize - 1;
+		int along = sticker == 1 && EDGE_REVERSED[edge] ? last - position : position;
+		int row = coordinates[1] == 1 ? along : coordinates[1] / 2 * last;
+		int column = coordinates[2] == 1 ? along : coordinates[2] / 2 * last;
+		return coordinates[0] * cubeSize * cubeSize + row * cubeSize + column;
+	}
+
+	/**
+	 * Sets the corners, and on cubes with an odd size the middle edges of the {@code stickers} of a normalized cube to this state.
+	 *
+	 * @param stickers The sticker array of a cube with a size {@code cubeSize}
+	 * @param cubeSize The size of the cube
+	 * @param sideColors The colors of the sides in the order they are stored
+	 */
+	void toStickers(byte[] stickers, int cubeSize, byte[] sideColors) {
+
+		for (int i = 0; i < CORNERS; ++i) {
+			int piece = cornerPermutation[i];
+			for (int k = 0; k < TWISTS; ++k) {
+				stickers[cornerStickerIndex(i, (k + cornerTwists[i]) % TWISTS, cubeSize)] = sideColors[CORNER_STICKERS[piece][k][0]];
+			}
+		}
+		if (cubeSize % 2 == 0) {
+			return;
+		}
+		int middle = (cubeSize - 1) / 2;
+		for (int i = 0; i < EDGES; ++i) {
+			int piece = edgePermutation[i];
+			for (int k = 0; k < FLIPS; ++k) {
+				stickers[edgeStickerIndex(i, (k + edgeFlips[i]) % FLIPS, middle, cubeSize)] = sideColors[EDGE_STICKERS[piece][k][0]];
+			}
+		}
+	}
+
+	/**
+	 * Returns the state of the corners, and on cubes with an odd size the middle edges of the {@code stickers} of a normalized cube.
+	 *
+	 * @param stickers The sticker array of a cube with a size {@code cubeSize}
+	 * @param cubeSize The size of the cube
+	 * @param sideColors The colors of the sides in the order they are stored
+	 * @return The state of the pieces, or {@code null} if the stickers don't form valid pieces
+	 */
+	static CubieState fromStickers(byte[] stickers, int cubeSize, byte[] sideColors) {
+
+		CubieState state = new CubieState();
+		for (int i = 0; i < CORNERS; ++i) {
+			int twist = 0;
+			while (twist < TWISTS && !isColorOf(stickers[cornerStickerIndex(i, twist, cubeSize)], sideColors, 0, 2)) {
+				++twist;
+			}
+			int piece = twist < TWISTS ? findCorner(stickers, i, twist, cubeSize, sideColors) : -1;
+			if (piece < 0) {
+				logger.error("Invalid corner at position {}", i);
+				return null;
+			}
+			state.cornerPermutation[i] = (byte) piece;
+			state.cornerTwists[i] = (byte) twist;
+		}
+		if (cubeSize % 2 == 0) {
+			return state;
+		}
+
+		int middle = (cubeSize - 1) / 2;
+		for (int i = 0; i < EDGES; ++i) {
+			byte first = stickers[edgeStickerIndex(i, 0, middle, cubeSize)];
+			byte second = stickers[edgeStickerIndex(i, 1, middle, cubeSize)];
+			int piece = -1;
+			for (int j = 0; j < EDGES && piece < 0; ++j) {
+				byte pieceFirst = sideColors[EDGE_STICKERS[j][0][0]];
+				byte pieceSecond = sideColors[EDGE_STICKERS[j][1][0]];
+				if (first == pieceFirst && second == pieceSecond) {
+					piece = j;
+				} else if (first == pieceSecond && second == pieceFirst) {
+					piece = j;
+					state.edgeFlips[i] = 1;
+				}
+			}
+			if (piece < 0) {
+				logger.error("Invalid edge at position {}", i);
+				return null;
+			}
+			state.edgePermutation[i] = (byte) piece;
+		}
+		return state;
+	}
+
+	private static boolean isColorOf(byte color, byte[] sideColors, int side, int oppositeSide) {
+		return color == sideColors[side] || color == sideColors[oppositeSide];
+	}
+
+	/**
+	 * Returns the number of the corner whose stickers are at the {@code corner} position starting with the sticker {@code twist}, or -1 if there's no such corner.
+	 */
+	private static int findCorner(byte[] stickers, int corner, int twist, int cubeSize, byte[] sideColors) {
+		byte first = stickers[cornerStickerIndex(corner, twist, cubeSize)];
+		byte second = stickers[cornerStickerIndex(corner, (twist + 1) % TWISTS, cubeSize)];
+		byte third = stickers[cornerStickerIndex(corner, (twist + 2) % TWISTS, cubeSize)];
+		for (int j = 0; j < CORNERS; ++j) {
+			if (first == sideColors[CORNER_STICKERS[j][0][0]] && second == sideColors[CORNER_STICKERS[j][1][0]]
+					&& third == sideColors[CORNER_STICKERS[j][2][0]]) {
+				return j;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns whether {@code object} is a {@link CubieState} with the same pieces at the same positions in the same orientations.
+	 *
+	 * @param object The object to compare with
+	 * @return {@code true} if {@code object} is the same state, {@code false} otherwise
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		}
+		if (!(object instanceof CubieState)) {
+			return false;
+		}
+		CubieState other = (CubieState) object;
+		return Arrays.equals(cornerPermutation, other.cornerPermutation) && Arrays.equals(cornerTwists, other.cornerTwists)
+				&& Arrays.equals(edgePermutation, other.edgePermutation) && Arrays.equals(edgeFlips, other.edgeFlips);
+	}
+
+	/**
+	 * Returns the hash code of this state.
+	 *
+	 * @return The hash code of this state
+	 */
+	@Override
+	public int hashCode() {
+		int hash = Arrays.hashCode(cornerPermutation);
+		hash = 31 * hash + Arrays.hashCode(cornerTwists);
+		hash = 31 * hash + Arrays.hashCode(edgePermutation);
+		return 31 * hash + Arrays.hashCode(edgeFlips);
+	}
+}
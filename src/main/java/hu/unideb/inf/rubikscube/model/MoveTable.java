@@ -0,0 +1,432 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class compiles the rotations of a cube with a given size into sticker permutations.
+ *
+ * <p>
+ * Each {@link Rotation} that can be applied to a cube is compiled into a {@link Permutation} of the sticker array of the cube the first time it's needed, so applying a rotation later on is only a loop over the moved stickers. There is only one table for each cube size, which can be obtained with {@link #forCubeSize(int)}.</p>
+ *
+ * @see Cube
+ * @author kinga
+ */
+public class MoveTable {
+
+	private static final int U = 0;
+	private static final int F = 1;
+	private static final int D = 2;
+	private static final int B = 3;
+	private static final int R = 4;
+	private static final int L = 5;
+
+	private static final Map<Integer, MoveTable> TABLES = new ConcurrentHashMap<>();
+
+	private final int cubeSize;
+	private final Permutation[][] permutations;
+	private final Permutation[] layerPermutations;
+	private final Map<Integer, Permutation> blockPermutations = new ConcurrentHashMap<>();
+	private final Map<Integer, Permutation> blockLayerPermutations = new ConcurrentHashMap<>();
+
+	private static Logger logger = LoggerFactory.getLogger(MoveTable.class);
+
+	private MoveTable(int cubeSize) {
+		this.cubeSize = cubeSize;
+		permutations = new Permutation[Rotation.NUMBER_OF_TYPES][cubeSize + 1];
+		layerPermutations = new Permutation[Rotation.NUMBER_OF_TYPES];
+		logger.info("Move table created for cubesize {}", cubeSize);
+	}
+
+	/**
+	 * Returns the move table for cubes with a size {@code cubeSize}.
+	 *
+	 * @param cubeSize The size of the cube
+	 * @return The move table for cubes with a size {@code cubeSize}
+	 */
+	public static MoveTable forCubeSize(int cubeSize) {
+		return TABLES.computeIfAbsent(cubeSize, MoveTable::new);
+	}
+
+	/**
+	 * Returns the size of the cubes this table is for.
+	 *
+	 * @return The size of the cubes this table is for
+	 */
+	public int getCubeSize() {
+		return cubeSize;
+	}
+
+	/**
+	 * Returns the permutation of the stickers that the specified {@code rotation} causes.
+	 *
+	 * <p>
+	 * The middle layers {@code M, E, S} and the whole cube with {@code x, y, z} are always rotated regardless of the layer number of the {@code rotation}. If the {@code rotation} rotates a block of layers, the returned permutation moves the stickers of all of its layers.</p>
+	 *
+	 * @param rotation The rotation
+	 * @return The permutation caused by {@code rotation}, or {@code null} if the {@code rotation} is invalid on the cube
+	 */
+	public Permutation getPermutation(Rotation rotation) {
+
+		int layerNumber = getValidLayerNumber(rotation);
+		if (layerNumber < 0) {
+			return null;
+		}
+		if (rotation.isBlockRotation()) {
+			return getBlockPermutation(rotation, true);
+		}
+
+		//Permutations are immutable, so racing compilations are harmless
+		int typeIndex = rotation.getTypeIndex();
+		Permutation permutation = permutations[typeIndex][layerNumber];
+		if (permutation == null) {
+			permutation = compile(rotation.getRotationType(), layerNumber, layerNumber, true);
+			permutations[typeIndex][layerNumber] = permutation;
+		}
+		return permutation;
+	}
+
+	/**
+	 * Returns the permutation of the stickers that the specified {@code rotation} causes, without rotating the side of the rotation itself.
+	 *
+	 * <p>
+	 * If the most outer layer is rotated, the side of the rotation has to be rotated separately, see {@link Side#turn(int)}. Otherwise the returned permutation is the same as {@link #getPermutation(Rotation)}.</p>
+	 *
+	 * @param rotation The rotation
+	 * @return The permutation of the stickers around the rotated layer, or {@code null} if the {@code rotation} is invalid on the cube
+	 */
+	Permutation getLayerPermutation(Rotation rotation) {
+
+		int layerNumber = getValidLayerNumber(rotation);
+		if (layerNumber != 1) {
+			return layerNumber < 0 ? null : getPermutation(rotation);
+		}
+		if (rotation.isBlockRotation()) {
+			return getBlockPermutation(rotation, false);
+		}
+
+		int typeIndex = rotation.getTypeIndex();
+		Permutation permutation = layerPermutations[typeIndex];
+		if (permutation == null) {
+			permutation = compile(rotation.getRotationType(), layerNumber, layerNumber, false);
+			layerPermutations[typeIndex] = permutation;
+		}
+		return permutation;
+	}
+
+	/**
+	 * Returns the permutation of the stickers that the specified {@code rotations} cause when they are applied one after the other.
+	 *
+	 * <p>
+	 * The sequence is shortened with {@link SequenceOptimizer} first, then the permutations of the rotations are composed into a single permutation, which can be applied to any number of cubes with this size, see {@link Cube#apply(Permutation)}. Rotations that are invalid on the cube are left out, the same way as {@link Cube#rotate(Rotation)} ignores them.</p>
+	 *
+	 * @param rotations The rotations to be composed
+	 * @return The permutation caused by the {@code rotations}
+	 */
+	public Permutation compose(Rotation[] rotations) {
+		return composeOptimized(SequenceOptimizer.optimize(rotations, cubeSize));
+	}
+
+	/**
+	 * Returns the permutation of the stickers that the specified {@code rotations} cause when they are applied one after the other, without optimizing the sequence.
+	 *
+	 * @param rotations The rotations to be composed
+	 * @return The permutation caused by the {@code rotations}
+	 */
+	Permutation composeOptimized(Rotation[] rotations) {
+
+		int[] mapping = Permutation.identity(Cube.NUMBER_OF_SIDES * cubeSize * cubeSize);
+		for (Rotation rotation : rotations) {
+			Permutation permutation = getPermutation(rotation);
+			if (permutation != null) {
+				permutation.applyTo(mapping);
+			}
+		}
+
+		logger.debug("Composed {} rotations for cube {}", rotations.length, cubeSize);
+		return new Permutation(mapping);
+	}
+
+	/**
+	 * Returns whether the specified {@code rotation} can be applied to a cube with the size of this table.
+	 *
+	 * @param rotation The rotation to be checked
+	 * @return {@code true} if the rotation is valid on the cube, {@code false} otherwise
+	 */
+	boolean isValid(Rotation rotation) {
+		return getValidLayerNumber(rotation) >= 0;
+	}
+
+	private Permutation getBlockPermutation(Rotation rotation, boolean withSide) {
+		Map<Integer, Permutation> cache = withSide ? blockPermutations : blockLayerPermutations;
+		return cache.computeIfAbsent(rotation.getCode(), code -> compile(rotation.getRotationType(),
+				rotation.getLayerNumber(), rotation.getLastLayerNumber(), withSide));
+	}
+
+	/**
+	 * Returns the layer number of the specified {@code rotation} that is used for looking up its permutation.
+	 *
+	 * @return The layer number, which is 0 for the middle layers, or -1 if the {@code rotation} is invalid on the cube
+	 */
+	private int getValidLayerNumber(Rotation rotation) {
+
+		if (rotation.getTypeIndex() < 0) {
+			logger.error("Invalid rotation type {}", rotation.getRotationType());
+			return -1;
+		}
+
+		boolean isLayerIgnored = rotation.isMiddleLayerRotation() || rotation.isCubeRotation();
+		int layerNumber = isLayerIgnored ? 0 : rotation.getLayerNumber();
+		if (rotation.getLastLayerNumber() > cubeSize || (layerNumber <= 0 && !isLayerIgnored)) {
+			logger.error("Invalid layer number {} for cube {}", rotation.getLastLayerNumber(), cubeSize);
+			return -1;
+		}
+		return layerNumber;
+	}
+
+	/**
+	 * Compiles the rotation with {@code rotationType} of the layers from {@code layerNumber} to {@code lastLayerNumber}.
+	 *
+	 * <p>
+	 * The rotation is carried out on an array where each element holds its own index, so afterwards each element tells where the sticker at its index came from. The layers of a block are rotated one after the other, so the compiled permutation moves the whole block at once.</p>
+	 */
+	private Permutation compile(String rotationType, int layerNumber, int lastLayerNumber, boolean withSide) {
+
+		int[] mapping = Permutation.identity(Cube.NUMBER_OF_SIDES * cubeSize * cubeSize);
+
+		int counter = rotationType.endsWith("2") ? 2 : 1;
+		switch (rotationType.charAt(0)) {
+			//The whole cube is rotated by rotating every layer
+			case 'x':
+				rotateCube(mapping, "R", "L'", rotationType.contains("'") ? 3 : counter);
+				break;
+			case 'y':
+				rotateCube(mapping, "U", "D'", rotationType.contains("'") ? 3 : counter);
+				break;
+			case 'z':
+				rotateCube(mapping, "F", "B'", rotationType.contains("'") ? 3 : counter);
+				break;
+			default:
+				for (int k = 0; k < counter; ++k) {
+					for (int layerNr = layerNumber - 1; layerNr < lastLayerNumber; ++layerNr) {
+						rotateQuarter(mapping, rotationType, layerNr, withSide);
+					}
+				}
+				break;
+		}
+
+		logger.debug("Compiled rotation {}-{}{} for cube {}", layerNumber, lastLayerNumber, rotationType, cubeSize);
+		return new Permutation(mapping);
+	}
+
+	private void rotateCube(int[] stickers, String rotationType, String oppositeRotationType, int counter) {
+		for (int k = 0; k < counter; ++k) {
+			for (int layerNr = 0; layerNr < cubeSize - 1; ++layerNr) {
+				rotateQuarter(stickers, rotationType, layerNr, true);
+			}
+			rotateQuarter(stickers, oppositeRotationType, 0, true);
+		}
+	}
+
+	private void rotateQuarter(int[] stickers, String rotationType, int layerNr, boolean withSide) {
+
+		boolean counterClockwise = rotationType.contains("'");
+
+		if (layerNr == 0 && withSide) {
+			switch (rotationType.charAt(0)) {
+				case 'U':
+					rotateSide(stickers, U, counterClockwise);
+					break;
+				case 'F':
+					rotateSide(stickers, F, counterClockwise);
+					break;
+				case 'D':
+					rotateSide(stickers, D, counterClockwise);
+					break;
+				case 'B':
+					rotateSide(stickers, B, counterClockwise);
+					break;
+				case 'R':
+					rotateSide(stickers, R, counterClockwise);
+					break;
+				case 'L':
+					rotateSide(stickers, L, counterClockwise);
+					break;
+				default:
+					break;
+			}
+		}
+
+		int[] strips = getStrips(rotationType, layerNr);
+		if (strips != null) {
+			cycle(stickers, strips);
+		}
+	}
+
+	/**
+	 * Returns the quadruples of stickers that are cycled by a quarter turn of the layer {@code layerNr} with {@code rotationType}, without the stickers of the side.
+	 *
+	 * <p>
+	 * Each quadruple moves the stickers of the 4 sides into the side before them. The quadruples start at the indices {@code a, b, c, d}, and the next quadruple is found by stepping the indices with {@code da, db, dc, dd}, see {@link #cycle(int[], int[])}.</p>
+	 *
+	 * @param rotationType The type of the rotation, a two-times-rotation gives the same quadruples as the clockwise rotation
+	 * @param layerNr The index of the layer, 0 for the most outer layer
+	 * @return The array {@code a, da, b, db, c, dc, d, dd}, or {@code null} if the rotation doesn't move any layer
+	 */
+	int[] getStrips(String rotationType, int layerNr) {
+
+		int last = cubeSize - 1;
+		int middleRowCol = cubeSize / 2;
+		int n = cubeSize;
+
+		switch (rotationType) {
+			case "R2":
+			case "R":
+				return new int[]{index(U, 0, last - layerNr), n, index(F, 0, last - layerNr), n,
+						index(D, 0, last - layerNr), n, index(B, last, layerNr), -n};
+			case "R'":
+				return new int[]{index(U, 0, last - layerNr), n, index(B, last, layerNr), -n,
+						index(D, 0, last - layerNr), n, index(F, 0, last - layerNr), n};
+			case "U2":
+			case "U":
+				return new int[]{index(F, layerNr, 0), 1, index(R, layerNr, 0), 1,
+						index(B, layerNr, 0), 1, index(L, layerNr, 0), 1};
+			case "U'":
+				return new int[]{index(F, layerNr, 0), 1, index(L, layerNr, 0), 1,
+						index(B, layerNr, 0), 1, index(R, layerNr, 0), 1};
+			case "F2":
+			case "F":
+				return new int[]{index(U, last - layerNr, 0), 1, index(L, last, last - layerNr), -n,
+						index(D, layerNr, last), -1, index(R, 0, layerNr), n};
+			case "F'":
+				return new int[]{index(U, last - layerNr, 0), 1, index(R, 0, layerNr), n,
+						index(D, layerNr, last), -1, index(L, last, last - layerNr), -n};
+			case "L2":
+			case "L":
+				return new int[]{index(U, 0, layerNr), n, index(B, last, last - layerNr), -n,
+						index(D, 0, layerNr), n, index(F, 0, layerNr), n};
+			case "L'":
+				return new int[]{index(U, 0, layerNr), n, index(F, 0, layerNr), n,
+						index(D, 0, layerNr), n, index(B, last, last - layerNr), -n};
+			case "D2":
+			case "D":
+				return new int[]{index(F, last - layerNr, 0), 1, index(L, last - layerNr, 0), 1,
+						index(B, last - layerNr, 0), 1, index(R, last - layerNr, 0), 1};
+			case "D'":
+				return new int[]{index(F, last - layerNr, 0), 1, index(R, last - layerNr, 0), 1,
+						index(B, last - layerNr, 0), 1, index(L, last - layerNr, 0), 1};
+			case "B2":
+			case "B":
+				return new int[]{index(U, layerNr, 0), 1, index(R, 0, last - layerNr), n,
+						index(D, last - layerNr, last), -1, index(L, last, layerNr), -n};
+			case "B'":
+				return new int[]{index(U, layerNr, 0), 1, index(L, last, layerNr), -n,
+						index(D, last - layerNr, last), -1, index(R, 0, last - layerNr), n};
+			case "E2":
+			case "E":
+				return new int[]{index(F, middleRowCol, 0), 1, index(R, middleRowCol, 0), 1,
+						index(B, middleRowCol, 0), 1, index(L, middleRowCol, 0), 1};
+			case "E'":
+				return new int[]{index(F, middleRowCol, 0), 1, index(L, middleRowCol, 0), 1,
+						index(B, middleRowCol, 0), 1, index(R, middleRowCol, 0), 1};
+			case "M2":
+			case "M":
+				return new int[]{index(F, 0, middleRowCol), n, index(U, 0, middleRowCol), n,
+						index(B, last, middleRowCol), -n, index(D, 0, middleRowCol), n};
+			case "M'":
+				return new int[]{index(F, 0, middleRowCol), n, index(D, 0, middleRowCol), n,
+						index(B, last, middleRowCol), -n, index(U, 0, middleRowCol), n};
+			case "S2":
+			case "S":
+				return new int[]{index(U, middleRowCol, 0), 1, index(L, last, middleRowCol), -n,
+						index(D, middleRowCol, last), -1, index(R, 0, middleRowCol), n};
+			case "S'":
+				return new int[]{index(U, middleRowCol, 0), 1, index(R, 0, middleRowCol), n,
+						index(D, middleRowCol, last), -1, index(L, last, middleRowCol), -n};
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Returns the index of a sticker in the sticker array.
+	 *
+	 * @param side The index of the side in the order the cube stores its sides
+	 * @param i Row index on the side
+	 * @param j Column index on the side
+	 * @return The index of the sticker in the sticker array
+	 */
+	private int index(int side, int i, int j) {
+		return (side * cubeSize + i) * cubeSize + j;
+	}
+
+	/**
+	 * Cycles {@code cubeSize} quadruples of stickers.
+	 *
+	 * <p>
+	 * The quadruples start at indices {@code a, b, c, d}, and the next quadruple is found by stepping the indices with {@code da, db, dc, dd}. In each quadruple the sticker at {@code b} moves to {@code a}, the one at {@code c} to {@code b}, the one at {@code d} to {@code c}, and the one at {@code a} to {@code d}.</p>
+	 *
+	 * @param strips The array {@code a, da, b, db, c, dc, d, dd} returned by {@link #getStrips(String, int)}
+	 */
+	private void cycle(int[] stickers, int[] strips) {
+		int a = strips[0];
+		int b = strips[2];
+		int c = strips[4];
+		int d = strips[6];
+		for (int i = 0; i < cubeSize; ++i) {
+			int temp = stickers[a];
+			stickers[a] = stickers[b];
+			stickers[b] = stickers[c];
+			stickers[c] = stickers[d];
+			stickers[d] = temp;
+			a += strips[1];
+			b += strips[3];
+			c += strips[5];
+			d += strips[7];
+		}
+	}
+
+	private void rotateSide(int[] stickers, int side, boolean counterClockwise) {
+
+		//On each ring of the side: cycle the 4 stickers that take each other's place
+		int last = cubeSize - 1;
+		for (int ring = 0; ring < cubeSize / 2; ++ring) {
+			for (int k = ring; k < last - ring; ++k) {
+				int top = index(side, ring, k);
+				int right = index(side, k, last - ring);
+				int bottom = index(side, last - ring, last - k);
+				int left = index(side, last - k, ring);
+
+				int temp = stickers[top];
+				if (counterClockwise) {
+					stickers[top] = stickers[right];
+					stickers[right] = stickers[bottom];
+					stickers[bottom] = stickers[left];
+					stickers[left] = temp;
+				} else {
+					stickers[top] = stickers[left];
+					stickers[left] = stickers[bottom];
+					stickers[bottom] = stickers[right];
+					stickers[right] = temp;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.Arrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class represents a Rubik's cube whose stickers are packed into 3 bits each.
+ *
+ * <p>
+ * A {@link Cube} stores each sticker in a {@code byte}, and compiles its rotations into permutations, which is the fastest for the cubes that are played with. For very large cubes, like the ones with a size of 1000 used in batch experiments, a packed cube needs less than half the memory, and its rotations are carried out directly on the packed stickers, so no permutation has to be compiled and kept for each layer.</p>
+ * <p>
+ * The stickers are stored in a {@code long} array, 21 stickers in each element, side after side in the order {@code U, F, D, B, R, L}, each side row by row, the same way as a normalized {@link Cube} stores them. The unused bits are always 0, so copying, comparing and hashing the cube works on whole elements of the array, and checking whether a side has a single color compares 21 stickers at once.</p>
+ * <p>
+ * Unlike a {@link Cube}, the packed cube moves the stickers of the side when its most outer layer is rotated, and the stickers of every side when the whole cube is rotated.</p>
+ *
+ * @see MoveTable#getStrips(String, int)
+ * @author kinga
+ */
+public class PackedCube {
+
+	private static final int BITS_PER_STICKER = 3;
+	private static final int STICKERS_PER_WORD = Long.SIZE / BITS_PER_STICKER;
+	private static final long STICKER_MASK = (1L << BITS_PER_STICKER) - 1;
+	private static final StickerColor[] COLORS = StickerColor.values();
+
+	//A word with the sticker 1 in each of its places, multiplied by a color it has that color in each place
+	private static final long UNIT_PATTERN = unitPattern();
+
+	private final int cubeSize;
+	private final int sideArea;
+	private final long[] words;
+	private final MoveTable moveTable;
+
+	private static Logger logger = LoggerFactory.getLogger(PackedCube.class);
+
+	/**
+	 * Creates a packed cube with a size {@code cubeSize} in its default state, which has the same colors as a new {@link Cube}.
+	 *
+	 * @param cubeSize The size of the cube
+	 */
+	public PackedCube(int cubeSize) {
+		if (cubeSize >= 2) {
+			this.cubeSize = cubeSize;
+		} else {
+			logger.error("Invalid cubesize {}, setting to DEFAULT_SIZE {}", cubeSize, Cube.DEFAULT_SIZE);
+			this.cubeSize = Cube.DEFAULT_SIZE;
+		}
+		sideArea = this.cubeSize * this.cubeSize;
+		words = new long[(Cube.NUMBER_OF_SIDES * sideArea + STICKERS_PER_WORD - 1) / STICKERS_PER_WORD];
+		moveTable = MoveTable.forCubeSize(this.cubeSize);
+		for (int side = 0; side < Cube.NUMBER_OF_SIDES; ++side) {
+			fill(side * sideArea, (side + 1) * sideArea, Cube.SIDE_COLORS[side].ordinal());
+		}
+		logger.info("Packed cube created with cubesize {}", this.cubeSize);
+	}
+
+	/**
+	 * Creates a copy of the {@code other} packed cube, with a single bulk copy of its stickers.
+	 *
+	 * @param other The packed cube to be copied
+	 */
+	public PackedCube(PackedCube other) {
+		cubeSize = other.cubeSize;
+		sideArea = other.sideArea;
+		words = other.words.clone();
+		moveTable = other.moveTable;
+	}
+
+	/**
+	 * Creates a packed cube with the same colors at each position as the {@code cube}.
+	 *
+	 * @param cube The cube to be packed
+	 */
+	public PackedCube(Cube cube) {
+		this(cube.getCubeSize());
+		for (int side = 0; side < Cube.NUMBER_OF_SIDES; ++side) {
+			Side cubeSide = cube.getSideAt(Cube.SIDE_POSITIONS[side]);
+			for (int i = 0; i < cubeSize; ++i) {
+				for (int j = 0; j < cubeSize; ++j) {
+					set(side * sideArea + i * cubeSize + j, cubeSide.getColorAt(i, j).ordinal());
+				}
+			}
+		}
+	}
+
+	private static long unitPattern() {
+		long pattern = 0;
+		for (int i = 0; i < STICKERS_PER_WORD; ++i) {
+			pattern |= 1L << (i * BITS_PER_STICKER);
+		}
+		return pattern;
+	}
+
+	private int get(int index) {
+		return (int) (words[index / STICKERS_PER_WORD] >>> (index % STICKERS_PER_WORD * BITS_PER_STICKER) & STICKER_MASK);
+	}
+
+	private void set(int index, int color) {
+		int word = index / STICKERS_PER_WORD;
+		int shift = index % STICKERS_PER_WORD * BITS_PER_STICKER;
+		words[word] = words[word] & ~(STICKER_MASK << shift) | (long) color << shift;
+	}
+
+	/**
+	 * Sets the stickers from the index {@code from} to {@code to}, exclusive, to the {@code color}, the whole words in between at once.
+	 */
+	private void fill(int from, int to, int color) {
+		int index = from;
+		while (index < to && index % STICKERS_PER_WORD != 0) {
+			set(index++, color);
+		}
+		long pattern = color * UNIT_PATTERN;
+		while (index + STICKERS_PER_WORD <= to) {
+			words[index / STICKERS_PER_WORD] = pattern;
+			index += STICKERS_PER_WORD;
+		}
+		while (index < to) {
+			set(index++, color);
+		}
+	}
+
+	/**
+	 * Returns whether the stickers from the index {@code from} to {@code to}, exclusive, all have the {@code color}, comparing the whole words in between at once.
+	 */
+	private boolean isFilled(int from, int to, int color) {
+		int index = from;
+		while (index < to && index % STICKERS_PER_WORD != 0) {
+			if (get(index++) != color) {
+				return false;
+			}
+		}
+		long pattern = color * UNIT_PATTERN;
+		while (index + STICKERS_PER_WORD <= to) {
+			if (words[index / STICKERS_PER_WORD] != pattern) {
+				return false;
+			}
+			index += STICKERS_PER_WORD;
+		}
+		while (index < to) {
+			if (get(index++) != color) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Applies the {@code rotation} to the cube.
+	 *
+	 * <p>
+	 * The rotation moves the same stickers as {@link Cube#rotate(Rotation)}, and invalid rotations are ignored the same way.</p>
+	 *
+	 * @param rotation The rotation to be applied
+	 */
+	public void rotate(Rotation rotation) {
+
+		if (!moveTable.isValid(rotation)) {
+			logger.error("Could not rotate the packed cube with rotation {}", rotation);
+			return;
+		}
+
+		String rotationType = rotation.getRotationType();
+		int counter = rotationType.endsWith("2") ? 2 : 1;
+		int cubeCounter = rotationType.contains("'") ? 3 : counter;
+		switch (rotationType.charAt(0)) {
+			case 'x':
+				rotateWholeCube("R", "L'", cubeCounter);
+				break;
+			case 'y':
+				rotateWholeCube("U", "D'", cubeCounter);
+				break;
+			case 'z':
+				rotateWholeCube("F", "B'", cubeCounter);
+				break;
+			default:
+				//The middle layers have the layer number 0, so they are rotated once with the layer index -1
+				for (int k = 0; k < counter; ++k) {
+					for (int layerNr = rotation.getLayerNumber() - 1; layerNr < rotation.getLastLayerNumber(); ++layerNr) {
+						rotateQuarter(rotationType, layerNr);
+					}
+				}
+				break;
+		}
+		logger.debug("Packed cube was rotated with rotation {}", rotation);
+	}
+
+	/**
+	 * Applies the {@code rotations} to the cube one after the other.
+	 *
+	 * @param rotations The rotations to be applied
+	 */
+	public void rotate(Rotation[] rotations) {
+		for (Rotation rotation : rotations) {
+			rotate(rotation);
+		}
+	}
+
+	private void rotateWholeCube(String rotationType, String oppositeRotationType, int counter) {
+		for (int k = 0; k < counter; ++k) {
+			for (int layerNr = 0; layerNr < cubeSize - 1; ++layerNr) {
+				rotateQuarter(rotationType, layerNr);
+			}
+			rotateQuarter(oppositeRotationType, 0);
+		}
+	}
+
+	private void rotateQuarter(String rotationType, int layerNr) {
+
+		if (layerNr == 0) {
+			int side = indexOfSide(rotationType.charAt(0));
+			if (side >= 0) {
+				rotateSide(side, rotationType.contains("'"));
+			}
+		}
+
+		int[] strips = moveTable.getStrips(rotationType, layerNr);
+		if (strips == null) {
+			return;
+		}
+		int a = strips[0];
+		int b = strips[2];
+		int c = strips[4];
+		int d = strips[6];
+		for (int i = 0; i < cubeSize; ++i) {
+			int temp = get(a);
+			set(a, get(b));
+			set(b, get(c));
+			set(c, get(d));
+			set(d, temp);
+			a += strips[1];
+			b += strips[3];
+			c += strips[5];
+			d += strips[7];
+		}
+	}
+
+	private void rotateSide(int side, boolean counterClockwise) {
+
+		//On each ring of the side: cycle the 4 stickers that take each other's place
+		int offset = side * sideArea;
+		int last = cubeSize - 1;
+		for (int ring = 0; ring < cubeSize / 2; ++ring) {
+			for (int k = ring; k < last - ring; ++k) {
+				int top = offset + ring * cubeSize + k;
+				int right = offset + k * cubeSize + last - ring;
+				int bottom = offset + (last - ring) * cubeSize + last - k;
+				int left = offset + (last - k) * cubeSize + ring;
+
+				int temp = get(top);
+				if (counterClockwise) {
+					set(top, get(right));
+					set(right, get(bottom));
+					set(bottom, get(left));
+					set(left, temp);
+				} else {
+					set(top, get(left));
+					set(left, get(bottom));
+					set(bottom, get(right));
+					set(right, temp);
+				}
+			}
+		}
+	}
+
+	private static int indexOfSide(char position) {
+		for (int side = 0; side < Cube.NUMBER_OF_SIDES; ++side) {
+			if (Cube.SIDE_POSITIONS[side] == position) {
+				return side;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the color at the specified indices of the side at the specified {@code position}.
+	 *
+	 * @param position The position of the side
+	 * @param i Row index
+	 * @param j Column index
+	 * @return The color at indices {@code i,j} on the side, or {@code null} if the position or the indices are invalid
+	 */
+	public StickerColor getColorAt(char position, int i, int j) {
+		int side = indexOfSide(position);
+		if (side < 0 || i < 0 || i >= cubeSize || j < 0 || j >= cubeSize) {
+			logger.error("Invalid sideposition {} or indices {} {}", position, i, j);
+			return null;
+		}
+		return COLORS[get(side * sideArea + i * cubeSize + j)];
+	}
+
+	/**
+	 * Returns whether each side of the cube has only one color.
+	 *
+	 * @return {@code true} if the cube is solved, {@code false} otherwise
+	 */
+	public boolean isSolved() {
+		for (int side = 0; side < Cube.NUMBER_OF_SIDES; ++side) {
+			int offset = side * sideArea;
+			if (!isFilled(offset, offset + sideArea, get(offset))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Creates a {@link Cube} with the same colors at each position as this packed cube.
+	 *
+	 * @return The unpacked cube
+	 */
+	public Cube toCube() {
+		Cube cube = new Cube(cubeSize);
+		for (int side = 0; side < Cube.NUMBER_OF_SIDES; ++side) {
+			Side cubeSide = cube.getSideAt(Cube.SIDE_POSITIONS[side]);
+			for (int i = 0; i < cubeSize; ++i) {
+				for (int j = 0; j < cubeSize; ++j) {
+					cubeSide.setColorAt(i, j, COLORS[get(side * sideArea + i * cubeSize + j)]);
+				}
+			}
+		}
+		return cube;
+	}
+
+	/**
+	 * Returns the size of the cube.
+	 *
+	 * @return The size of the cube
+	 */
+	public int getCubeSize() {
+		return cubeSize;
+	}
+
+	/**
+	 * Returns the number of bytes the stickers of the cube are stored in.
+	 *
+	 * @return The size of the packed stickers in bytes
+	 */
+	public long getPackedSize() {
+		return (long) words.length * Long.BYTES;
+	}
+
+	/**
+	 * Returns a 64-bit hash of the state of the cube, computed from the whole words of the packed stickers.
+	 *
+	 * <p>
+	 * Cubes in the same state have the same hash, but the hash is not the same as the hash of a {@link Cube} in that state, see {@link Cube#getStateHash()}.</p>
+	 *
+	 * @return The hash of the state of the cube
+	 */
+	public long getStateHash() {
+		long hash = cubeSize;
+		for (long word : words) {
+			hash = Long.rotateLeft(hash ^ word, 29) * 0x9E3779B97F4A7C15L;
+		}
+		return hash ^ (hash >>> 32);
+	}
+
+	/**
+	 * Returns the hash code of this packed cube, which is derived from {@link #getStateHash()}.
+	 *
+	 * @return The hash code of this packed cube
+	 */
+	@Override
+	public int hashCode() {
+		long stateHash = getStateHash();
+		return (int) (stateHash ^ (stateHash >>> 32));
+	}
+
+	/**
+	 * Returns whether {@code object} is a {@link PackedCube} with the same size and the same colors at each position as this packed cube.
+	 *
+	 * @param object The object to compare with
+	 * @return {@code true} if {@code object} is a packed cube in the same state, {@code false} otherwise
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		}
+		if (!(object instanceof PackedCube)) {
+			return false;
+		}
+		PackedCube other = (PackedCube) object;
+		return cubeSize == other.cubeSize && Arrays.equals(words, other.words);
+	}
+}
@@ -0,0 +1,407 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class represents a permutation of the stickers of a cube.
+ *
+ * <p>
+ * The stickers of a cube are identified by their indices in the sticker array of the cube when all of its sides are normalized, see {@link Cube}. A permutation tells for each index which sticker moves there. Only the stickers that actually move are stored, grouped into cycles, so applying a permutation needs no extra memory and touches only the moved stickers.</p>
+ * <p>
+ * Objects of this class are immutable.</p>
+ *
+ * @author kinga
+ */
+public class Permutation {
+
+	//The least number of stickers moved by one task when the permutation is applied in parallel
+	private static final int MIN_PARALLEL_GRAIN = 64;
+	private static final int TASKS_PER_THREAD = 4;
+
+	private final int size;
+	private final int[] cycles;
+	private final int[] cycleStarts;
+
+	private static Logger logger = LoggerFactory.getLogger(Permutation.class);
+
+	/**
+	 * Creates a {@link Permutation} object from the specified {@code mapping}.
+	 *
+	 * The sticker at index {@code mapping[i]} moves to index {@code i}, so {@code mapping} must contain every index from {@code 0} to {@code mapping.length - 1} exactly once.
+	 *
+	 * @param mapping The indices where the stickers come from
+	 */
+	public Permutation(int[] mapping) {
+
+		size = mapping.length;
+		boolean[] visited = new boolean[size];
+		int[] cycleBuffer = new int[size];
+		int[] startBuffer = new int[size / 2 + 1];
+		int length = 0;
+		int cycleCount = 0;
+
+		for (int i = 0; i < size; ++i) {
+			if (visited[i] || mapping[i] == i) {
+				continue;
+			}
+			startBuffer[cycleCount++] = length;
+			for (int j = i; !visited[j]; j = mapping[j]) {
+				visited[j] = true;
+				cycleBuffer[length++] = j;
+			}
+		}
+		startBuffer[cycleCount] = length;
+
+		cycles = Arrays.copyOf(cycleBuffer, length);
+		cycleStarts = Arrays.copyOf(startBuffer, cycleCount + 1);
+	}
+
+	/**
+	 * Applies the permutation to the specified {@code stickers}.
+	 *
+	 * @param stickers The sticker array of a cube, must have a length of {@link #getSize()}
+	 */
+	void applyTo(byte[] stickers) {
+		applyTo(stickers, (StateTracker) null);
+	}
+
+	/**
+	 * Applies the permutation to the specified {@code stickers}, and updates the {@code tracker} of the state of the cube with the moved stickers.
+	 *
+	 * @param stickers The sticker array of a cube, must have a length of {@link #getSize()}
+	 * @param tracker The tracker of the state of the cube, or {@code null} if there's no state to be updated
+	 */
+	void applyTo(byte[] stickers, StateTracker tracker) {
+
+		for (int c = 0; c < cycleStarts.length - 1; ++c) {
+			int start = cycleStarts[c];
+			int end = cycleStarts[c + 1] - 1;
+			byte temp = stickers[cycles[start]];
+			for (int i = start; i < end; ++i) {
+				int to = cycles[i];
+				byte color = stickers[cycles[i + 1]];
+				if (tracker != null) {
+					tracker.update(to, stickers[to], color);
+				}
+				stickers[to] = color;
+			}
+			if (tracker != null) {
+				tracker.update(cycles[end], stickers[cycles[end]], temp);
+			}
+			stickers[cycles[end]] = temp;
+		}
+	}
+
+	/**
+	 * Applies the permutation to the specified {@code indices}.
+	 *
+	 * <p>
+	 * If {@code indices} is a mapping as described at {@link #Permutation(int[])}, afterwards it is the mapping of the permutations applied one after the other.</p>
+	 *
+	 * @param indices The array to be permuted, must have a length of {@link #getSize()}
+	 */
+	void applyTo(int[] indices) {
+
+		for (int c = 0; c < cycleStarts.length - 1; ++c) {
+			int start = cycleStarts[c];
+			int end = cycleStarts[c + 1] - 1;
+			int temp = indices[cycles[start]];
+			for (int i = start; i < end; ++i) {
+				indices[cycles[i]] = indices[cycles[i + 1]];
+			}
+			indices[cycles[end]] = temp;
+		}
+	}
+
+	/**
+	 * Returns the permutation that is the same as applying this permutation, then the {@code next} permutation.
+	 *
+	 * @param next The permutation applied after this one, must have the same size
+	 * @return The composite permutation, or {@code null} if the sizes of the permutations differ
+	 */
+	public Permutation then(Permutation next) {
+
+		if (next.size != size) {
+			logger.error("Permutations of different sizes {} and {} can't be composed", size, next.size);
+			return null;
+		}
+
+		int[] mapping = identity(size);
+		applyTo(mapping);
+		next.applyTo(mapping);
+		return new Permutation(mapping);
+	}
+
+	/**
+	 * Returns an array where each element holds its own index, which is the mapping of the identity permutation.
+	 *
+	 * @param size The length of the array
+	 * @return The mapping of the identity permutation of {@code size} elements
+	 */
+	static int[] identity(int size) {
+		int[] mapping = new int[size];
+		for (int i = 0; i < size; ++i) {
+			mapping[i] = i;
+		}
+		return mapping;
+	}
+
+	/**
+	 * Applies the permutation to the stickers of the specified {@code sides}.
+	 *
+	 * <p>
+	 * The indices of the permutation are interpreted on the sides as if they were normalized, so the stored stickers of the sides are found with {@link Side#physicalIndex(int)}.</p>
+	 *
+	 * @param stickers The sticker array the {@code sides} are stored in
+	 * @param sides The sides of the cube in the order the cube stores them
+	 * @param tracker The tracker of the state of the cube, or {@code null} if there's no state to be updated
+	 */
+	void applyTo(byte[] stickers, Side[] sides, StateTracker tracker) {
+
+		int sideArea = size / Cube.NUMBER_OF_SIDES;
+		for (int c = 0; c < cycleStarts.length - 1; ++c) {
+			int start = cycleStarts[c];
+			int end = cycleStarts[c + 1] - 1;
+			int to = physicalIndex(cycles[start], sides, sideArea);
+			byte temp = stickers[to];
+			for (int i = start; i < end; ++i) {
+				int from = physicalIndex(cycles[i + 1], sides, sideArea);
+				if (tracker != null) {
+					tracker.update(to, stickers[to], stickers[from]);
+				}
+				stickers[to] = stickers[from];
+				to = from;
+			}
+			if (tracker != null) {
+				tracker.update(to, stickers[to], temp);
+			}
+			stickers[to] = temp;
+		}
+	}
+
+	/**
+	 * Applies the permutation to the specified {@code stickers} with the threads of the {@code pool}.
+	 *
+	 * <p>
+	 * The cycles are split into groups of about the same number of stickers, and each group is applied by a separate task. The cycles don't share any stickers, so the tasks don't interfere. Each task collects its changes of the state of the cube in its own delta tracker, see {@link StateTracker#newDelta()}, and the deltas are merged into the {@code tracker} when all tasks are finished.</p>
+	 *
+	 * @param stickers The sticker array of a cube, must have a length of {@link #getSize()}
+	 * @param sides The sides of the cube in the order the cube stores them, or {@code null} if the sides are normalized
+	 * @param tracker The tracker of the state of the cube, or {@code null} if there's no state to be updated
+	 * @param pool The pool whose threads apply the permutation
+	 */
+	void applyInParallel(byte[] stickers, Side[] sides, StateTracker tracker, ForkJoinPool pool) {
+
+		int grain = Math.max(MIN_PARALLEL_GRAIN, cycles.length / (TASKS_PER_THREAD * pool.getParallelism()));
+		StateTracker delta = pool.invoke(new ApplyTask(stickers, sides, tracker, 0, cycleStarts.length - 1, grain));
+		if (tracker != null) {
+			tracker.merge(delta);
+		}
+		logger.debug("Permutation of {} stickers applied in parallel", cycles.length);
+	}
+
+	/**
+	 * A task that applies the cycles from {@code firstCycle} to {@code lastCycle}, exclusive, and returns the changes of the state of the cube.
+	 */
+	private class ApplyTask extends RecursiveTask<StateTracker> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final byte[] stickers;
+		private final Side[] sides;
+		private final StateTracker tracker;
+		private final int firstCycle;
+		private final int lastCycle;
+		private final int grain;
+
+		ApplyTask(byte[] stickers, Side[] sides, StateTracker tracker, int firstCycle, int lastCycle, int grain) {
+			this.stickers = stickers;
+			this.sides = sides;
+			this.tracker = tracker;
+			this.firstCycle = firstCycle;
+			this.lastCycle = lastCycle;
+			this.grain = grain;
+		}
+
+		@Override
+		protected StateTracker compute() {
+
+			if (lastCycle - firstCycle > 1 && cycleStarts[lastCycle] - cycleStarts[firstCycle] > grain) {
+				//Split at the cycle that halves the moved stickers
+				int middleSticker = (cycleStarts[firstCycle] + cycleStarts[lastCycle]) / 2;
+				int middle = Arrays.binarySearch(cycleStarts, firstCycle, lastCycle, middleSticker);
+				middle = middle >= 0 ? middle : -middle - 1;
+				middle = Math.min(Math.max(middle, firstCycle + 1), lastCycle - 1);
+
+				ApplyTask first = new ApplyTask(stickers, sides, tracker, firstCycle, middle, grain);
+				ApplyTask second = new ApplyTask(stickers, sides, tracker, middle, lastCycle, grain);
+				first.fork();
+				StateTracker delta = second.compute();
+				StateTracker firstDelta = first.join();
+				if (delta != null) {
+					delta.merge(firstDelta);
+				}
+				return delta;
+			}
+
+			StateTracker delta = tracker == null ? null : tracker.newDelta();
+			int sideArea = size / Cube.NUMBER_OF_SIDES;
+			for (int c = firstCycle; c < lastCycle; ++c) {
+				int start = cycleStarts[c];
+				int end = cycleStarts[c + 1] - 1;
+				int to = sides == null ? cycles[start] : physicalIndex(cycles[start], sides, sideArea);
+				byte temp = stickers[to];
+				for (int i = start; i < end; ++i) {
+					int from = sides == null ? cycles[i + 1] : physicalIndex(cycles[i + 1], sides, sideArea);
+					if (delta != null) {
+						delta.update(to, stickers[to], stickers[from]);
+					}
+					stickers[to] = stickers[from];
+					to = from;
+				}
+				if (delta != null) {
+					delta.update(to, stickers[to], temp);
+				}
+				stickers[to] = temp;
+			}
+			return delta;
+		}
+	}
+
+	private static int physicalIndex(int index, Side[] sides, int sideArea) {
+		int side = index / sideArea;
+		return sides[side].physicalIndex(index - side * sideArea);
+	}
+
+	/**
+	 * Returns the number of stickers the permutation is defined on.
+	 *
+	 * @return The number of stickers the permutation is defined on
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of stickers moved by the permutation.
+	 *
+	 * @return The number of stickers moved by the permutation
+	 */
+	public int getMovedCount() {
+		return cycles.length;
+	}
+
+	/**
+	 * Returns the indices of the stickers moved by the permutation, in increasing order.
+	 *
+	 * @return The indices of the moved stickers
+	 */
+	public int[] getMovedIndices() {
+		int[] indices = cycles.clone();
+		Arrays.sort(indices);
+		return indices;
+	}
+
+	/**
+	 * Returns the number of cycles of the permutation, the stickers that don't move are not counted.
+	 *
+	 * @return The number of cycles of the permutation
+	 */
+	public int getCycleCount() {
+		return cycleStarts.length - 1;
+	}
+
+	/**
+	 * Returns the order of the permutation.
+	 *
+	 * <p>
+	 * The order is how many times the permutation has to be applied to get every sticker back to its place, which is the least common multiple of the lengths of its cycles. For example the order of the permutation of {@code R U} on a 3x3 cube is 105. The order is calculated from the cycles, so the permutation doesn't need to be applied at all.</p>
+	 *
+	 * @return The order of the permutation, or -1 if it's too large for a {@code long}
+	 */
+	public long getOrder() {
+		return getOrder(null, null);
+	}
+
+	/**
+	 * Returns how many times the permutation has to be applied to get the same colors at each position.
+	 *
+	 * <p>
+	 * This can be less than {@link #getOrder()} when stickers of the same color take each other's place. The colors along each cycle repeat with a period that divides the length of the cycle, and the result is the least common multiple of these periods.</p>
+	 *
+	 * @param stickers The sticker array of a cube, or {@code null} if every sticker is considered different
+	 * @param sides The sides of the cube in the order the cube stores them, or {@code null} if the sides are normalized
+	 * @return The number of times the permutation has to be applied, or -1 if it's too large for a {@code long}
+	 */
+	long getOrder(byte[] stickers, Side[] sides) {
+
+		int sideArea = size / Cube.NUMBER_OF_SIDES;
+		long order = 1;
+		for (int c = 0; c < cycleStarts.length - 1; ++c) {
+			int start = cycleStarts[c];
+			int length = cycleStarts[c + 1] - start;
+			long period = stickers == null ? length : getColorPeriod(stickers, sides, sideArea, start, length);
+			try {
+				order = Math.multiplyExact(order / gcd(order, period), period);
+			} catch (ArithmeticException exception) {
+				logger.error("Order of the permutation of {} stickers is too large", size);
+				return -1;
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Returns the smallest period of the colors along the cycle starting at {@code start}, which is a divisor of its {@code length}.
+	 */
+	private int getColorPeriod(byte[] stickers, Side[] sides, int sideArea, int start, int length) {
+
+		byte[] colors = new byte[length];
+		for (int i = 0; i < length; ++i) {
+			int index = cycles[start + i];
+			colors[i] = stickers[sides == null ? index : physicalIndex(index, sides, sideArea)];
+		}
+
+		for (int period = 1; period < length; ++period) {
+			if (length % period != 0) {
+				continue;
+			}
+			boolean isPeriod = true;
+			for (int i = period; i < length && isPeriod; ++i) {
+				isPeriod = colors[i] == colors[i - period];
+			}
+			if (isPeriod) {
+				return period;
+			}
+		}
+		return length;
+	}
+
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			long r = a % b;
+			a = b;
+			b = r;
+		}
+		return a;
+	}
+}
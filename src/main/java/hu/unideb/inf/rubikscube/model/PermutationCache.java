@@ -0,0 +1,214 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class caches the composed permutations of sequences of rotations.
+ *
+ * <p>
+ * Algorithms are usually applied to cubes over and over, so instead of composing the permutation of an algorithm each time, see {@link MoveTable#compose(Rotation[])}, the permutation is composed once and looked up later. The sequences are optimized with {@link SequenceOptimizer} before they are looked up, so the sequences that are the same after the optimization share their permutation.</p>
+ * <p>
+ * The cache holds at most a given number of permutations, and when it's full, the permutation that was used least recently is evicted. The cache can be used from several threads at the same time.</p>
+ *
+ * @see Cube#applyAlgorithm(Rotation[])
+ * @author kinga
+ */
+public class PermutationCache {
+
+	/**
+	 * The capacity of the shared cache, is always {@value}.
+	 */
+	public static final int SHARED_CAPACITY = 256;
+
+	private static final PermutationCache SHARED_CACHE = new PermutationCache(SHARED_CAPACITY);
+
+	private final int capacity;
+	private final LinkedHashMap<Key, Permutation> permutations;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	private static Logger logger = LoggerFactory.getLogger(PermutationCache.class);
+
+	/**
+	 * The key of a permutation, which is the size of the cube and the codes of the optimized sequence.
+	 */
+	private static class Key {
+
+		private final int cubeSize;
+		private final int[] codes;
+		private final int hash;
+
+		Key(int cubeSize, Rotation[] rotations) {
+			this.cubeSize = cubeSize;
+			codes = new int[rotations.length];
+			for (int i = 0; i < rotations.length; ++i) {
+				codes[i] = rotations[i].getCode();
+			}
+			hash = 31 * cubeSize + Arrays.hashCode(codes);
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) object;
+			return cubeSize == other.cubeSize && Arrays.equals(codes, other.codes);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * Creates an empty {@link PermutationCache} that holds at most {@code capacity} permutations.
+	 *
+	 * @param capacity The maximum number of permutations in the cache, if it's less than 1, the cache holds 1 permutation
+	 */
+	public PermutationCache(int capacity) {
+		if (capacity < 1) {
+			logger.error("Invalid capacity {}, setting to 1", capacity);
+			capacity = 1;
+		}
+		this.capacity = capacity;
+		permutations = new LinkedHashMap<Key, Permutation>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Permutation> eldest) {
+				if (size() > PermutationCache.this.capacity) {
+					evictionCount++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cache shared by the cubes.
+	 *
+	 * @return The shared cache, which holds at most {@value #SHARED_CAPACITY} permutations
+	 */
+	public static PermutationCache getSharedCache() {
+		return SHARED_CACHE;
+	}
+
+	/**
+	 * Returns the permutation of the stickers that the specified {@code rotations} cause on a cube with a size {@code cubeSize}.
+	 *
+	 * <p>
+	 * If the permutation of the sequence is not in the cache, it's composed and put into the cache.</p>
+	 *
+	 * @param rotations The rotations applied one after the other
+	 * @param cubeSize The size of the cube
+	 * @return The permutation caused by the {@code rotations}
+	 * @see MoveTable#compose(Rotation[])
+	 */
+	public Permutation getPermutation(Rotation[] rotations, int cubeSize) {
+		return getOptimizedPermutation(SequenceOptimizer.optimize(rotations, cubeSize), cubeSize);
+	}
+
+	/**
+	 * Returns the permutation of the stickers that the {@code optimized} sequence causes on a cube with a size {@code cubeSize}.
+	 *
+	 * @param optimized A sequence returned by {@link SequenceOptimizer#optimize(Rotation[], int)} for the {@code cubeSize}
+	 * @param cubeSize The size of the cube
+	 * @return The permutation caused by the {@code optimized} sequence
+	 */
+	Permutation getOptimizedPermutation(Rotation[] optimized, int cubeSize) {
+
+		Key key = new Key(cubeSize, optimized);
+		synchronized (this) {
+			Permutation permutation = permutations.get(key);
+			if (permutation != null) {
+				hitCount++;
+				return permutation;
+			}
+			missCount++;
+		}
+
+		//Composing is done outside the lock, racing threads compose the same permutation
+		Permutation permutation = MoveTable.forCubeSize(cubeSize).composeOptimized(optimized);
+		synchronized (this) {
+			permutations.put(key, permutation);
+		}
+		logger.debug("Permutation of {} rotations cached for cube {}", optimized.length, cubeSize);
+		return permutation;
+	}
+
+	/**
+	 * Returns the maximum number of permutations in the cache.
+	 *
+	 * @return The capacity of the cache
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of permutations in the cache.
+	 *
+	 * @return The number of permutations in the cache
+	 */
+	public synchronized int size() {
+		return permutations.size();
+	}
+
+	/**
+	 * Returns how many times a permutation was found in the cache.
+	 *
+	 * @return The number of hits
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Returns how many times a permutation was not found in the cache, so it had to be composed.
+	 *
+	 * @return The number of misses
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Returns how many permutations were evicted from the cache.
+	 *
+	 * @return The number of evictions
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Removes every permutation from the cache and resets the counters.
+	 */
+	public synchronized void clear() {
+		permutations.clear();
+		hitCount = 0;
+		missCount = 0;
+		evictionCount = 0;
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.Arrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class finds the shortest solutions of the states of the 2x2 cube.
+ *
+ * <p>
+ * The corner {@code DBL} is kept in place, and only the sides {@code R, U} and {@code F} are rotated, so a state is given by the permutation of the other 7 corners and the twists of 6 of them, which is one of 5040 * 729 states. The distance of every state from the solved state is computed once with a breadth-first search, then a shortest solution is found by always choosing a rotation that gets closer to the solved state.</p>
+ *
+ * @author kinga
+ */
+final class PocketCubeSolver {
+
+	private static final int MOVED_CORNERS = 7;
+	private static final int PERMUTATIONS = 5040;
+	private static final int ORIENTATIONS = 729;
+	private static final int STATES = PERMUTATIONS * ORIENTATIONS;
+
+	//The rotations R, R', R2, U, U', U2, F, F', F2, whose type indices are 0 to 8
+	private static final int MOVES = 9;
+
+	private static Logger logger = LoggerFactory.getLogger(PocketCubeSolver.class);
+
+	private PocketCubeSolver() {
+	}
+
+	/**
+	 * The tables are built when the first state is solved.
+	 */
+	private static final class Tables {
+
+		private static final int[] PERMUTATION_MOVES = new int[PERMUTATIONS * MOVES];
+		private static final int[] ORIENTATION_MOVES = new int[ORIENTATIONS * MOVES];
+		private static final byte[] DISTANCES = new byte[STATES];
+
+		static {
+			CubieState state = new CubieState();
+			for (int move = 0; move < MOVES; ++move) {
+				CubieState rotation = CubieState.forRotation(move);
+				for (int i = 0; i < PERMUTATIONS; ++i) {
+					setPermutationIndex(state, i);
+					PERMUTATION_MOVES[i * MOVES + move] = getPermutationIndex(state.then(rotation));
+				}
+				for (int i = 0; i < ORIENTATIONS; ++i) {
+					setOrientationIndex(state, i);
+					ORIENTATION_MOVES[i * MOVES + move] = getOrientationIndex(state.then(rotation));
+				}
+			}
+
+			Arrays.fill(DISTANCES, (byte) -1);
+			int[] queue = new int[STATES];
+			int head = 0;
+			int tail = 0;
+			DISTANCES[0] = 0;
+			queue[tail++] = 0;
+			while (head < tail) {
+				int current = queue[head++];
+				int permutation = current / ORIENTATIONS;
+				int orientation = current % ORIENTATIONS;
+				for (int move = 0; move < MOVES; ++move) {
+					int next = PERMUTATION_MOVES[permutation * MOVES + move] * ORIENTATIONS
+							+ ORIENTATION_MOVES[orientation * MOVES + move];
+					if (DISTANCES[next] < 0) {
+						DISTANCES[next] = (byte) (DISTANCES[current] + 1);
+						queue[tail++] = next;
+					}
+				}
+			}
+			logger.info("Distance table of the 2x2 cube built for {} states", tail);
+		}
+	}
+
+	/**
+	 * Returns a shortest sequence of rotations that solves the specified {@code state}.
+	 *
+	 * @param state The state of the corners of a 2x2 cube with the corner {@code DBL} in place
+	 * @return The rotations solving the {@code state}, or {@code null} if the corner {@code DBL} is not in place or the state is not reachable
+	 */
+	static Rotation[] solve(CubieState state) {
+
+		if (state.cornerPermutation[CubieState.DBL] != CubieState.DBL || state.cornerTwists[CubieState.DBL] != 0
+				|| !state.isReachable(2)) {
+			logger.error("The state can't be solved without rotating the corner DBL");
+			return null;
+		}
+
+		int permutation = getPermutationIndex(state);
+		int orientation = getOrientationIndex(state);
+		int distance = Tables.DISTANCES[permutation * ORIENTATIONS + orientation];
+		Rotation[] solution = new Rotation[distance];
+		for (int k = 0; k < solution.length; ++k) {
+			for (int move = 0; move < MOVES; ++move) {
+				int nextPermutation = Tables.PERMUTATION_MOVES[permutation * MOVES + move];
+				int nextOrientation = Tables.ORIENTATION_MOVES[orientation * MOVES + move];
+				if (Tables.DISTANCES[nextPermutation * ORIENTATIONS + nextOrientation] == distance - k - 1) {
+					solution[k] = Rotation.of(1, move);
+					permutation = nextPermutation;
+					orientation = nextOrientation;
+					break;
+				}
+			}
+		}
+		logger.debug("Solved 2x2 state in {} rotations", distance);
+		return solution;
+	}
+
+	/**
+	 * Returns the number of the position among the corners other than {@code DBL}.
+	 */
+	private static int movedIndex(int corner) {
+		return corner < CubieState.DBL ? corner : corner - 1;
+	}
+
+	private static int corner(int movedIndex) {
+		return movedIndex < CubieState.DBL ? movedIndex : movedIndex + 1;
+	}
+
+	/**
+	 * Returns the rank of the permutation of the corners other than {@code DBL} in lexicographic order.
+	 */
+	private static int getPermutationIndex(CubieState state) {
+		int index = 0;
+		for (int i = 0; i < MOVED_CORNERS; ++i) {
+			int piece = movedIndex(state.cornerPermutation[corner(i)]);
+			int smaller = 0;
+			for (int j = i + 1; j < MOVED_CORNERS; ++j) {
+				if (movedIndex(state.cornerPermutation[corner(j)]) < piece) {
+					++smaller;
+				}
+			}
+			index = index * (MOVED_CORNERS - i) + smaller;
+		}
+		return index;
+	}
+
+	private static void setPermutationIndex(CubieState state, int index) {
+		int[] smaller = new int[MOVED_CORNERS];
+		for (int i = MOVED_CORNERS - 1; i >= 0; --i) {
+			smaller[i] = index % (MOVED_CORNERS - i);
+			index /= MOVED_CORNERS - i;
+		}
+		boolean[] used = new boolean[MOVED_CORNERS];
+		for (int i = 0; i < MOVED_CORNERS; ++i) {
+			int piece = 0;
+			for (int count = smaller[i]; used[piece] || count > 0; ++piece) {
+				if (!used[piece]) {
+					--count;
+				}
+			}
+			used[piece] = true;
+			state.cornerPermutation[corner(i)] = (byte) corner(piece);
+		}
+	}
+
+	/**
+	 * Returns the twists of the first 6 corners other than {@code DBL} as a number in base 3, the twist of the last one follows from them.
+	 */
+	private static int getOrientationIndex(CubieState state) {
+		int index = 0;
+		for (int i = 0; i < MOVED_CORNERS - 1; ++i) {
+			index = index * CubieState.TWISTS + state.cornerTwists[corner(i)];
+		}
+		return index;
+	}
+
+	private static void setOrientationIndex(CubieState state, int index) {
+		int sum = 0;
+		for (int i = MOVED_CORNERS - 2; i >= 0; --i) {
+			state.cornerTwists[corner(i)] = (byte) (index % CubieState.TWISTS);
+			sum += index % CubieState.TWISTS;
+			index /= CubieState.TWISTS;
+		}
+		state.cornerTwists[corner(MOVED_CORNERS - 1)] = (byte) ((CubieState.TWISTS - sum % CubieState.TWISTS) % CubieState.TWISTS);
+	}
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is responsible for scrambling cubes into uniformly random states.
+ *
+ * <p>
+ * Unlike a {@link Scrambler}, which generates a random sequence of rotations, this class chooses a random permutation and random orientations of the pieces directly, so every state that can be reached with rotations has the same chance, and the scrambled cube is created without rotating it. The permutations and the orientations that can't be reached are avoided by fixing the parity of the permutations and the sum of the orientations, see {@link CubieState}.</p>
+ * <p>
+ * Cubes bigger than 3x3 are scrambled directly in their sticker array, so scrambling even a very large cube only takes time proportional to the number of its stickers. Their corners, and on cubes with an odd size their middle edges are chosen the same way as on the smaller cubes. The edge pieces of each orbit can be in any order, their orientations are given by where they are. The center stickers of each orbit are in any order too, because the four center stickers with the same color in an orbit can't be told apart, so any parity of their permutation can be reached. On a cube with an even size the corner {@code DBL} is kept in place the same way as on the 2x2 cube.</p>
+ * <p>
+ * The states of the 2x2 cube are created with the corner {@code DBL} in place. For the 2x2 and the 3x3 cube a short sequence of rotations leading to the state can be asked for with {@link #getScramble()}.</p>
+ *
+ * @see Scrambler
+ * @author kinga
+ */
+public class RandomStateScrambler {
+
+	//The number of edge pieces and center stickers in an orbit of a cube bigger than 3x3
+	private static final int EDGE_PIECES = 2 * CubieState.EDGES;
+	private static final int CENTER_ORBIT_SIZE = 4 * Cube.NUMBER_OF_SIDES;
+
+	//The kind of the edge piece at the lower position of each edge, the piece at the upper position is of the other kind
+	private static final int[] EDGE_PIECE_KINDS = {0, 1, 1, 0, 0, 0, 1, 1, 0, 1, 0, 1};
+
+	private static final byte[] SIDE_COLORS = CubieState.defaultSideColors();
+
+	private static Logger logger = LoggerFactory.getLogger(RandomStateScrambler.class);
+
+	private final int targetCubeSize;
+	private final long seed;
+	private final SplittableRandom random;
+	private CubieState state;
+	private byte[] stickers;
+	private Rotation[] scramble;
+
+	/**
+	 * Creates a {@link RandomStateScrambler} object for a cube with a size {@code targetCubeSize}.
+	 *
+	 * @param targetCubeSize The size of the cube
+	 */
+	public RandomStateScrambler(int targetCubeSize) {
+		this(targetCubeSize, ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Creates a {@link RandomStateScrambler} object for a cube with a size {@code targetCubeSize}, whose states are generated from the specified {@code seed}.
+	 *
+	 * @param targetCubeSize The size of the cube
+	 * @param seed The seed of the random generator of the scrambler
+	 */
+	public RandomStateScrambler(int targetCubeSize, long seed) {
+		if (targetCubeSize >= 2) {
+			this.targetCubeSize = targetCubeSize;
+		} else {
+			logger.error("Invalid cubesize {} for random states, setting to DEFAULT_SIZE {}", targetCubeSize, Cube.DEFAULT_SIZE);
+			this.targetCubeSize = Cube.DEFAULT_SIZE;
+		}
+		this.seed = seed;
+		this.random = new SplittableRandom(seed);
+
+		generateNewState();
+		logger.info("Random state scrambler created for cubesize {} with seed {}", this.targetCubeSize, seed);
+	}
+
+	/**
+	 * This method chooses a new random state for cubes with a size specified in the constructor.
+	 */
+	public void generateNewState() {
+		if (targetCubeSize <= 3) {
+			state = CubieState.random(random, targetCubeSize);
+		} else {
+			stickers = CubieState.solvedStickers(targetCubeSize);
+			CubieState.random(random, targetCubeSize % 2 == 0 ? 2 : 3).toStickers(stickers, targetCubeSize, SIDE_COLORS);
+			randomizeEdgePieces(stickers, targetCubeSize, random);
+			randomizeCenters(stickers, targetCubeSize, random);
+		}
+		scramble = null;
+		logger.debug("Generated new random state");
+	}
+
+	/**
+	 * Puts the edge pieces of each orbit of a cube bigger than 3x3 in a random order.
+	 *
+	 * <p>
+	 * An orbit consists of the edge pieces at the same distance from the corners, 24 of them, with a lower and an upper position on each edge. The pieces have two kinds, which are mirror images of each other, and a piece moved to a position of the other kind is flipped.</p>
+	 */
+	private static void randomizeEdgePieces(byte[] stickers, int cubeSize, SplittableRandom random) {
+
+		byte[] pieces = new byte[EDGE_PIECES];
+		for (int position = 1; position < cubeSize - 1 - position; ++position) {
+			for (int i = 0; i < EDGE_PIECES; ++i) {
+				pieces[i] = (byte) i;
+			}
+			for (int i = EDGE_PIECES - 1; i > 0; --i) {
+				int j = random.nextInt(i + 1);
+				byte temp = pieces[i];
+				pieces[i] = pieces[j];
+				pieces[j] = temp;
+			}
+
+			for (int i = 0; i < EDGE_PIECES; ++i) {
+				int edge = i / 2;
+				int piece = pieces[i];
+				int flip = getEdgePieceKind(i) ^ getEdgePieceKind(piece);
+				int at = i % 2 == 0 ? position : cubeSize - 1 - position;
+				for (int k = 0; k < CubieState.FLIPS; ++k) {
+					int pieceSide = CubieState.getEdgeSide(piece / 2, (k + flip) % CubieState.FLIPS);
+					stickers[CubieState.edgeStickerIndex(edge, k, at, cubeSize)] = SIDE_COLORS[pieceSide];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the kind of the edge piece whose home is the lower ({@code 2 * edge}) or the upper ({@code 2 * edge + 1}) position of the edge.
+	 */
+	static int getEdgePieceKind(int piece) {
+		return EDGE_PIECE_KINDS[piece / 2] ^ (piece % 2);
+	}
+
+	/**
+	 * Puts the center stickers of each orbit of a cube bigger than 3x3 in a random order.
+	 *
+	 * <p>
+	 * An orbit consists of the 4 positions on each side that a center sticker visits while the side is rotated, and the positions from the upper left quarter of the sides are the first ones of each orbit. On a cube with an odd size the center of each side stays in place.</p>
+	 */
+	private static void randomizeCenters(byte[] stickers, int cubeSize, SplittableRandom random) {
+
+		int sideArea = cubeSize * cubeSize;
+		int last = cubeSize - 1;
+		byte[] colors = new byte[CENTER_ORBIT_SIZE];
+		for (int i = 1; i < cubeSize / 2; ++i) {
+			for (int j = 1; j <= last / 2; ++j) {
+				for (int k = 0; k < CENTER_ORBIT_SIZE; ++k) {
+					colors[k] = SIDE_COLORS[k / 4];
+				}
+				for (int k = CENTER_ORBIT_SIZE - 1; k > 0; --k) {
+					int l = random.nextInt(k + 1);
+					byte temp = colors[k];
+					colors[k] = colors[l];
+					colors[l] = temp;
+				}
+
+				for (int side = 0; side < Cube.NUMBER_OF_SIDES; ++side) {
+					int start = side * sideArea;
+					stickers[start + i * cubeSize + j] = colors[4 * side];
+					stickers[start + j * cubeSize + last - i] = colors[4 * side + 1];
+					stickers[start + (last - i) * cubeSize + last - j] = colors[4 * side + 2];
+					stickers[start + (last - j) * cubeSize + i] = colors[4 * side + 3];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a new cube in the current random state.
+	 *
+	 * @return The scrambled cube
+	 */
+	public Cube getCube() {
+		if (state == null) {
+			return new Cube(targetCubeSize, stickers.clone());
+		}
+		byte[] cubeStickers = CubieState.solvedStickers(targetCubeSize);
+		state.toStickers(cubeStickers, targetCubeSize, SIDE_COLORS);
+		return new Cube(targetCubeSize, cubeStickers);
+	}
+
+	/**
+	 * Returns a short sequence of rotations that scrambles the solved cube into the current random state.
+	 *
+	 * <p>
+	 * The sequence is only available for the 2x2 and the 3x3 cube, it's computed the first time it's asked for. For the 2x2 cube it's a shortest sequence, and the first call builds the table of the distances of all the states of the 2x2 cube, which takes a moment. For the 3x3 cube it has at most {@link TwoPhaseSolver#DEFAULT_MAX_LENGTH} rotations, and it's found by a {@link TwoPhaseSolver} with its default table file.</p>
+	 *
+	 * @return The rotations leading to the current state, or {@code null} if the sequence is not available for the size of the cube
+	 */
+	public Rotation[] getScramble() {
+		return getScramble(null);
+	}
+
+	/**
+	 * Returns a short sequence of rotations that scrambles the solved cube into the current random state, the states of the 3x3 cube are solved with the {@code solver}.
+	 *
+	 * @param solver The solver of the 3x3 states, or {@code null} for a solver with the default table file
+	 * @return The rotations leading to the current state, or {@code null} if the sequence is not available for the size of the cube
+	 */
+	Rotation[] getScramble(TwoPhaseSolver solver) {
+
+		if (targetCubeSize > 3) {
+			logger.error("Scramble sequence is not available for cubesize {}", targetCubeSize);
+			return null;
+		}
+		if (scramble == null) {
+			if (targetCubeSize == 2) {
+				scramble = invert(PocketCubeSolver.solve(state));
+			} else {
+				TwoPhaseSolver stateSolver = solver != null ? solver : new TwoPhaseSolver();
+				scramble = invert(stateSolver.solve(state, TwoPhaseSolver.DEFAULT_MAX_LENGTH));
+			}
+		}
+		return scramble.clone();
+	}
+
+	/**
+	 * Returns the sequence of rotations that undoes the specified {@code rotations}.
+	 *
+	 * @param rotations The rotations to be undone
+	 * @return The inverses of the {@code rotations} in reverse order
+	 */
+	static Rotation[] invert(Rotation[] rotations) {
+		Rotation[] inverse = new Rotation[rotations.length];
+		for (int i = 0; i < rotations.length; ++i) {
+			inverse[rotations.length - 1 - i] = rotations[i].getInverse();
+		}
+		return inverse;
+	}
+
+	/**
+	 * Returns the size of the cubes the states are generated for.
+	 *
+	 * @return The size of the cubes
+	 */
+	public int getTargetCubeSize() {
+		return targetCubeSize;
+	}
+
+	/**
+	 * Returns the seed of the random generator of this scrambler.
+	 *
+	 * @return The seed of the scrambler
+	 */
+	public long getSeed() {
+		return seed;
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class represents the replay of the rotations applied to a cube, which can be played from any position.
+ *
+ * <p>
+ * The timeline keeps every rotation, and a {@link CubeSnapshot} of the state of the cube after every {@code checkpointInterval} rotations. Seeking to a position restores the last checkpoint before it and applies the rotations after the checkpoint, so it costs at most {@code checkpointInterval} rotations regardless of the length of the replay. Moving forward from the current position only applies the rotations in between. The rotations to be applied are optimized and composed into one permutation, see {@link MoveTable#compose(Rotation[])}, which is applied in one pass.</p>
+ * <p>
+ * For example, the state after the 1234th rotation of a replay can be shown like this:</p>
+ * <pre>
+ *	ReplayTimeline timeline = new ReplayTimeline(new Cube(5));
+ *	timeline.append(rotations);
+ *	Cube cube = timeline.seek(1234);
+ * </pre>
+ *
+ * @see Cube#snapshot()
+ * @author kinga
+ */
+public class ReplayTimeline {
+
+	/**
+	 * The default number of rotations between two checkpoints, is {@value}.
+	 */
+	public static final int DEFAULT_CHECKPOINT_INTERVAL = 64;
+
+	private final Cube cube;
+	private final MoveTable moveTable;
+	private final int checkpointInterval;
+	private final List<Rotation> rotations = new ArrayList<>();
+	private final List<CubeSnapshot> checkpoints = new ArrayList<>();
+	private int position;
+
+	private static Logger logger = LoggerFactory.getLogger(ReplayTimeline.class);
+
+	/**
+	 * Creates an empty timeline that starts from the state of the {@code initialCube}, with the default checkpoint interval.
+	 *
+	 * @param initialCube The cube in the state before the first rotation, which is copied
+	 */
+	public ReplayTimeline(Cube initialCube) {
+		this(initialCube, DEFAULT_CHECKPOINT_INTERVAL);
+	}
+
+	/**
+	 * Creates an empty timeline that starts from the state of the {@code initialCube}.
+	 *
+	 * @param initialCube The cube in the state before the first rotation, which is copied
+	 * @param checkpointInterval The number of rotations between two checkpoints
+	 */
+	public ReplayTimeline(Cube initialCube, int checkpointInterval) {
+		if (checkpointInterval >= 1) {
+			this.checkpointInterval = checkpointInterval;
+		} else {
+			logger.error("Invalid checkpoint interval {}, setting to DEFAULT_CHECKPOINT_INTERVAL {}",
+					checkpointInterval, DEFAULT_CHECKPOINT_INTERVAL);
+			this.checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+		}
+		cube = new Cube(initialCube);
+		moveTable = MoveTable.forCubeSize(cube.getCubeSize());
+		//The rotations are kept by the timeline, so the cube doesn't need to record them for undoing
+		cube.setJournalCapacity(0);
+		checkpoints.add(cube.snapshot());
+		logger.info("Replay timeline created for cube {}", cube.getCubeSize());
+	}
+
+	/**
+	 * Appends the {@code rotation} to the timeline at the current position.
+	 *
+	 * <p>
+	 * If the current position is not at the end of the timeline, the rotations after it are discarded first, so the replay continues from the state that is shown. The current position becomes the end of the timeline. A rotation that is invalid on the cube is not appended.</p>
+	 *
+	 * @param rotation The rotation to be appended
+	 */
+	public void append(Rotation rotation) {
+
+		if (!moveTable.isValid(rotation)) {
+			logger.error("Invalid rotation {} for replay of cube {}", rotation, cube.getCubeSize());
+			return;
+		}
+		if (position < rotations.size()) {
+			rotations.subList(position, rotations.size()).clear();
+			checkpoints.subList(position / checkpointInterval + 1, checkpoints.size()).clear();
+			logger.debug("Replay timeline truncated to {} rotations", position);
+		}
+
+		cube.rotate(rotation);
+		rotations.add(rotation);
+		position++;
+		if (position % checkpointInterval == 0) {
+			checkpoints.add(cube.snapshot());
+		}
+	}
+
+	/**
+	 * Appends the {@code rotations} to the timeline one after the other.
+	 *
+	 * @param rotations The rotations to be appended
+	 * @see #append(Rotation)
+	 */
+	public void append(Rotation[] rotations) {
+		for (Rotation rotation : rotations) {
+			append(rotation);
+		}
+	}
+
+	/**
+	 * Sets the cube of the timeline to the state after the first {@code position} rotations.
+	 *
+	 * <p>
+	 * The returned cube is owned by the timeline and is changed by the next call of {@link #seek(int)} or {@link #append(Rotation)}, so it must not be rotated. A copy of it can be created with {@link Cube#Cube(Cube)}.</p>
+	 *
+	 * @param position The number of rotations applied, in the interval {@code [0, size()]}
+	 * @return The cube in the state at {@code position}, or {@code null} if {@code position} is invalid
+	 */
+	public Cube seek(int position) {
+
+		if (position < 0 || position > rotations.size()) {
+			logger.error("Invalid position {} in replay of {} rotations", position, rotations.size());
+			return null;
+		}
+
+		int checkpoint = position / checkpointInterval;
+		if (position < this.position || this.position < checkpoint * checkpointInterval) {
+			cube.restore(checkpoints.get(checkpoint));
+			this.position = checkpoint * checkpointInterval;
+		}
+		if (this.position < position) {
+			Rotation[] span = rotations.subList(this.position, position).toArray(new Rotation[0]);
+			cube.apply(moveTable.compose(span));
+			this.position = position;
+		}
+
+		logger.debug("Replay timeline set to position {}", position);
+		return cube;
+	}
+
+	/**
+	 * Returns the cube of the timeline in the state at the current position.
+	 *
+	 * @return The cube of the timeline, which must not be rotated
+	 * @see #seek(int)
+	 */
+	public Cube getCube() {
+		return cube;
+	}
+
+	/**
+	 * Returns the current position of the timeline, which is the number of rotations applied to its cube.
+	 *
+	 * @return The current position
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Returns the number of rotations in the timeline.
+	 *
+	 * @return The number of rotations
+	 */
+	public int size() {
+		return rotations.size();
+	}
+
+	/**
+	 * Returns the rotation at the specified {@code index} of the timeline.
+	 *
+	 * @param index The index of the rotation, the first rotation has index 0
+	 * @return The rotation at {@code index}, or {@code null} if {@code index} is invalid
+	 */
+	public Rotation getRotation(int index) {
+		if (index < 0 || index >= rotations.size()) {
+			logger.error("Invalid index {} in replay of {} rotations", index, rotations.size());
+			return null;
+		}
+		return rotations.get(index);
+	}
+
+	/**
+	 * Returns the number of rotations between two checkpoints.
+	 *
+	 * @return The checkpoint interval
+	 */
+	public int getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Returns the number of checkpoints, including the initial state.
+	 *
+	 * @return The number of checkpoints
+	 */
+	public int getCheckpointCount() {
+		return checkpoints.size();
+	}
+}
@@ -17,7 +17,7 @@ package hu.unideb.inf.rubikscube.model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,13 +37,52 @@ import org.slf4j.LoggerFactory;
  * <p>
  * For example, the rotation 2R' on a 4x4x4-sized cube means rotating the second layer from the right side counterclockwise (from a viewing position as if the side would be in front of us), so into the direction of the user. The 3L on a 7x7x7-sized cube means rotating the third layer from the left side clockwise (from a viewing position as if the side would be in front of us), so into the direction of the user.
  * </p>
+ * <p>
+ * Besides the layers, the whole cube can be rotated too, which doesn't change the state of the cube, only the way it is looked at. The rotation types {@code x, y, z} rotate the whole cube in the same direction as {@code R, U, F} respectively, and can be counterclockwise and two-times-rotations the same way as the rotations of the layers. The layer number of these rotations is not used.</p>
+ * <p>
+ * A rotation of the sides can also turn a block of neighbouring layers together, from the layer {@code layerNumber} to the layer {@code lastLayerNumber}. A block that starts at the most outer layer is a <i>wide</i> rotation, for example {@code 3Rw} rotates the three outer layers from the right side, and {@code Rw} is the same as {@code 2Rw}. Other blocks are written with the range of their layers, for example {@code 2-4R'} rotates the second, third and fourth layer from the right side counterclockwise. Rotating a block is the same as rotating each of its layers one after the other, but the whole block is moved at once.</p>
  *
  * @author kinga
  */
 public class Rotation {
 
-	private int layerNumber;
-	private String rotationType;
+	/**
+	 * The rotation types that a rotation can have, indexed by the type index of the rotation.
+	 *
+	 * <p>
+	 * The types are grouped by sides in the order {@code R, U, F, L, D, B, E, M, S, x, y, z}, and for each side there is the clockwise, the counterclockwise and the two-times-rotation in this order.</p>
+	 */
+	private static final String[] ROTATION_TYPES = {
+		"R", "R'", "R2", "U", "U'", "U2", "F", "F'", "F2",
+		"L", "L'", "L2", "D", "D'", "D2", "B", "B'", "B2",
+		"E", "E'", "E2", "M", "M'", "M2", "S", "S'", "S2",
+		"x", "x'", "x2", "y", "y'", "y2", "z", "z'", "z2"
+	};
+
+	/**
+	 * The number of different rotation types, is always {@value}.
+	 */
+	public static final int NUMBER_OF_TYPES = 36;
+
+	private static final int MIDDLE_LAYER_TYPES_START = 18;
+	private static final int CUBE_ROTATION_TYPES_START = 27;
+
+	//The codes of the blocks have the number of the additional layers above the code of their first layer
+	private static final int BLOCK_CODE_SHIFT = 21;
+	private static final int MAX_BLOCK_LAYERS = 1 << (31 - BLOCK_CODE_SHIFT);
+	private static final int MAX_LAYER_NUMBER = (1 << BLOCK_CODE_SHIFT) / NUMBER_OF_TYPES;
+
+	//Only the rotations of the outer layers are shared, they are kept in arrays by their layer numbers
+	private static final int DENSE_LAYERS = 64;
+
+	private static final Object REGISTRY_LOCK = new Object();
+	private static volatile Rotation[][] registry = new Rotation[NUMBER_OF_TYPES][0];
+
+	private final int layerNumber;
+	private final int lastLayerNumber;
+	private final String rotationType;
+	private final int typeIndex;
+	private final String name;
 
 	/**
 	 * This list contains all those rotations that can be applied to any kind of cube regardless to its size.
@@ -53,24 +92,24 @@ public class Rotation {
 	 */
 	public static final ArrayList<Rotation> BASIC_ROTATIONS = new ArrayList<>(
 			Arrays.asList(
-					new Rotation(1, "R"),
-					new Rotation(1, "R'"),
-					new Rotation(1, "R2"),
-					new Rotation(1, "U"),
-					new Rotation(1, "U'"),
-					new Rotation(1, "U2"),
-					new Rotation(1, "F"),
-					new Rotation(1, "F'"),
-					new Rotation(1, "F2"),
-					new Rotation(1, "L"),
-					new Rotation(1, "L'"),
-					new Rotation(1, "L2"),
-					new Rotation(1, "D"),
-					new Rotation(1, "D'"),
-					new Rotation(1, "D2"),
-					new Rotation(1, "B"),
-					new Rotation(1, "B'"),
-					new Rotation(1, "B2")
+					of(1, "R"),
+					of(1, "R'"),
+					of(1, "R2"),
+					of(1, "U"),
+					of(1, "U'"),
+					of(1, "U2"),
+					of(1, "F"),
+					of(1, "F'"),
+					of(1, "F2"),
+					of(1, "L"),
+					of(1, "L'"),
+					of(1, "L2"),
+					of(1, "D"),
+					of(1, "D'"),
+					of(1, "D2"),
+					of(1, "B"),
+					of(1, "B'"),
+					of(1, "B2")
 			)
 	);
 
@@ -79,13 +118,234 @@ public class Rotation {
 	/**
 	 * Creates a {@link Rotation} object from the specified {@code layerNumber} and {@code rotationType}.
 	 *
+	 * <p>
+	 * Rotations are immutable, so instead of creating new objects, the shared instances returned by {@link #of(int, String)} should be used.</p>
+	 *
 	 * @param layerNumber An integer that tells which layer should be rotated from the type {@code rotationType}
 	 * @param rotationType A string that tells the type of the rotation
 	 * @see Rotation
 	 */
 	public Rotation(int layerNumber, String rotationType) {
+		this(layerNumber, layerNumber, indexOfType(rotationType), rotationType);
+	}
+
+	private Rotation(int layerNumber, int lastLayerNumber, int typeIndex, String rotationType) {
 		this.layerNumber = layerNumber;
-		this.rotationType = rotationType;
+		this.lastLayerNumber = lastLayerNumber;
+		this.typeIndex = typeIndex;
+		this.rotationType = typeIndex >= 0 ? ROTATION_TYPES[typeIndex] : rotationType;
+		if (lastLayerNumber == layerNumber) {
+			this.name = layerNumber + this.rotationType;
+		} else if (layerNumber == 1) {
+			this.name = lastLayerNumber + this.rotationType.substring(0, 1) + "w" + this.rotationType.substring(1);
+		} else {
+			this.name = layerNumber + "-" + lastLayerNumber + this.rotationType;
+		}
+	}
+
+	private static int indexOfType(String rotationType) {
+		for (int i = 0; i < NUMBER_OF_TYPES; ++i) {
+			if (ROTATION_TYPES[i].equals(rotationType)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the shared {@link Rotation} object with the specified {@code layerNumber} and {@code rotationType}.
+	 *
+	 * <p>
+	 * Only the rotations of the outer layers are shared, the rotations of the deeper layers of very large cubes and the rotations of blocks are created for each call, so rotations should be compared with {@link #equals(Object)}.</p>
+	 *
+	 * @param layerNumber An integer that tells which layer should be rotated from the type {@code rotationType}
+	 * @param rotationType A string that tells the type of the rotation
+	 * @return The rotation with {@code layerNumber} and {@code rotationType}, or {@code null} if {@code rotationType} or {@code layerNumber} is invalid
+	 * @see Rotation
+	 */
+	public static Rotation of(int layerNumber, String rotationType) {
+
+		int typeIndex = indexOfType(rotationType);
+		if (typeIndex < 0) {
+			logger.error("Invalid rotation type {}", rotationType);
+			return null;
+		}
+		return of(layerNumber, typeIndex);
+	}
+
+	/**
+	 * Returns the shared {@link Rotation} object with the specified {@code layerNumber} and {@code typeIndex}.
+	 *
+	 * @param layerNumber An integer that tells which layer should be rotated
+	 * @param typeIndex The index of the type of the rotation, see {@link #getTypeIndex()}
+	 * @return The rotation with {@code layerNumber} and {@code typeIndex}, or {@code null} if {@code typeIndex} or {@code layerNumber} is invalid
+	 */
+	static Rotation of(int layerNumber, int typeIndex) {
+
+		if (typeIndex < 0 || typeIndex >= NUMBER_OF_TYPES) {
+			logger.error("Invalid rotation type index {}", typeIndex);
+			return null;
+		}
+		if (layerNumber < 0 || layerNumber >= MAX_LAYER_NUMBER) {
+			logger.error("Invalid layer number {}", layerNumber);
+			return null;
+		}
+
+		Rotation[] rotations = registry[typeIndex];
+		if (layerNumber < rotations.length) {
+			return rotations[layerNumber];
+		}
+		if (layerNumber >= DENSE_LAYERS) {
+			return new Rotation(layerNumber, layerNumber, typeIndex, null);
+		}
+		return intern(layerNumber, typeIndex);
+	}
+
+	/**
+	 * Returns the index of the type of the rotation that turns the layers of a side by {@code quarterTurns} quarter turns clockwise.
+	 *
+	 * @param side The index of the side in the order {@code R, U, F, L, D, B, E, M, S, x, y, z}
+	 * @param quarterTurns The number of quarter turns, 1, 2 or 3
+	 * @return The index of the type of the rotation, see {@link #getTypeIndex()}
+	 */
+	static int typeIndex(int side, int quarterTurns) {
+		switch (quarterTurns) {
+			case 1:
+				return 3 * side;
+			case 3:
+				return 3 * side + 1;
+			default:
+				return 3 * side + 2;
+		}
+	}
+
+	private static Rotation intern(int layerNumber, int typeIndex) {
+
+		synchronized (REGISTRY_LOCK) {
+			Rotation[][] oldRegistry = registry;
+			if (layerNumber < oldRegistry[typeIndex].length) {
+				return oldRegistry[typeIndex][layerNumber];
+			}
+
+			//The registry is copied on growth, so readers never see a half-filled array
+			Rotation[][] newRegistry = oldRegistry.clone();
+			Rotation[] rotations = Arrays.copyOf(oldRegistry[typeIndex], Math.max(layerNumber + 1, 8));
+			for (int i = oldRegistry[typeIndex].length; i < rotations.length; ++i) {
+				rotations[i] = new Rotation(i, i, typeIndex, null);
+			}
+			newRegistry[typeIndex] = rotations;
+			registry = newRegistry;
+			return rotations[layerNumber];
+		}
+	}
+
+	/**
+	 * Returns the {@link Rotation} object that rotates the layers from {@code layerNumber} to {@code lastLayerNumber} together.
+	 *
+	 * <p>
+	 * Only the layers of the sides {@code R, U, F, L, D, B} can be rotated as a block. If {@code layerNumber} and {@code lastLayerNumber} are the same, the returned rotation is the same as {@link #of(int, String)} returns.</p>
+	 *
+	 * @param layerNumber The number of the first layer of the block
+	 * @param lastLayerNumber The number of the last layer of the block
+	 * @param rotationType A string that tells the type of the rotation
+	 * @return The rotation of the block, or {@code null} if {@code rotationType} or the layer numbers are invalid
+	 * @see Rotation
+	 */
+	public static Rotation of(int layerNumber, int lastLayerNumber, String rotationType) {
+
+		int typeIndex = indexOfType(rotationType);
+		if (typeIndex < 0) {
+			logger.error("Invalid rotation type {}", rotationType);
+			return null;
+		}
+		return of(layerNumber, lastLayerNumber, typeIndex);
+	}
+
+	/**
+	 * Returns the {@link Rotation} object that rotates the layers from {@code layerNumber} to {@code lastLayerNumber} together.
+	 *
+	 * @param layerNumber The number of the first layer of the block
+	 * @param lastLayerNumber The number of the last layer of the block
+	 * @param typeIndex The index of the type of the rotation, see {@link #getTypeIndex()}
+	 * @return The rotation of the block, or {@code null} if the layer numbers are invalid
+	 */
+	static Rotation of(int layerNumber, int lastLayerNumber, int typeIndex) {
+
+		if (lastLayerNumber == layerNumber) {
+			return of(layerNumber, typeIndex);
+		}
+		if (typeIndex < 0 || typeIndex >= NUMBER_OF_TYPES) {
+			logger.error("Invalid rotation type index {}", typeIndex);
+			return null;
+		}
+		if (layerNumber < 1 || lastLayerNumber < layerNumber || lastLayerNumber - layerNumber >= MAX_BLOCK_LAYERS
+				|| layerNumber >= MAX_LAYER_NUMBER || typeIndex >= MIDDLE_LAYER_TYPES_START) {
+			logger.error("Invalid block {}-{} of rotation type {}", layerNumber, lastLayerNumber, ROTATION_TYPES[typeIndex]);
+			return null;
+		}
+
+		return new Rotation(layerNumber, lastLayerNumber, typeIndex, null);
+	}
+
+	/**
+	 * Returns the {@link Rotation} object with the specified {@code code}.
+	 *
+	 * @param code The code of the rotation, see {@link #getCode()}
+	 * @return The rotation with {@code code}, or {@code null} if {@code code} is invalid
+	 */
+	public static Rotation fromCode(int code) {
+
+		if (code < 0) {
+			logger.error("Invalid rotation code {}", code);
+			return null;
+		}
+		int layerCode = code & ((1 << BLOCK_CODE_SHIFT) - 1);
+		int layerNumber = layerCode / NUMBER_OF_TYPES;
+		return of(layerNumber, layerNumber + (code >>> BLOCK_CODE_SHIFT), layerCode % NUMBER_OF_TYPES);
+	}
+
+	/**
+	 * Returns the {@link Rotation} object that has the specified {@code name}.
+	 *
+	 * <p>
+	 * The {@code name} is in the format returned by {@link #getName()}, for example {@code 2R'}, {@code 3Rw'} or {@code 2-4R'}. If the number of the layer is omitted, the layer number will be 1 for the rotations of the sides, and 0 for the rotations of the middle layers {@code M, E, S} and of the whole cube {@code x, y, z}. If the number of the layers of a wide rotation is omitted, two layers are rotated.</p>
+	 *
+	 * @param name The name of the rotation
+	 * @return The rotation with {@code name}, or {@code null} if {@code name} is not a valid name of a rotation
+	 */
+	public static Rotation parse(String name) {
+
+		int rangeEnd = name.indexOf('-');
+		int typeStart = rangeEnd + 1;
+		while (typeStart < name.length() && Character.isDigit(name.charAt(typeStart))) {
+			typeStart++;
+		}
+		boolean isWide = name.length() > typeStart + 1 && name.charAt(typeStart + 1) == 'w';
+		String rotationType = isWide ? name.charAt(typeStart) + name.substring(typeStart + 2) : name.substring(typeStart);
+
+		int typeIndex = indexOfType(rotationType);
+		if (typeIndex < 0 || rangeEnd == 0 || (rangeEnd > 0 && (rangeEnd + 1 == typeStart || isWide))
+				|| typeStart - rangeEnd > 10 || rangeEnd > 9) {
+			logger.error("Invalid rotation {}", name);
+			return null;
+		}
+
+		int layerNumber;
+		int lastLayerNumber;
+		if (rangeEnd > 0) {
+			layerNumber = Integer.parseInt(name.substring(0, rangeEnd));
+			lastLayerNumber = Integer.parseInt(name.substring(rangeEnd + 1, typeStart));
+		} else if (isWide) {
+			layerNumber = 1;
+			lastLayerNumber = typeStart > 0 ? Integer.parseInt(name.substring(0, typeStart)) : 2;
+		} else if (typeStart > 0) {
+			layerNumber = Integer.parseInt(name.substring(0, typeStart));
+			lastLayerNumber = layerNumber;
+		} else {
+			layerNumber = typeIndex >= MIDDLE_LAYER_TYPES_START ? 0 : 1;
+			lastLayerNumber = layerNumber;
+		}
+		return of(layerNumber, lastLayerNumber, typeIndex);
 	}
 
 	/**
@@ -98,9 +358,90 @@ public class Rotation {
 		return rotationType;
 	}
 
+	/**
+	 * Returns the index of the type of the rotation.
+	 *
+	 * <p>
+	 * The index is {@code 3 * s + d}, where {@code s} is the index of the side in the order {@code R, U, F, L, D, B, E, M, S, x, y, z}, and {@code d} is 0 for clockwise, 1 for counterclockwise and 2 for two-times-rotation.</p>
+	 *
+	 * @return The index of the type of the rotation, or -1 if the type is invalid
+	 */
+	int getTypeIndex() {
+		return typeIndex;
+	}
+
+	/**
+	 * Returns how many clockwise quarter turns the rotation means.
+	 *
+	 * @return 1 for clockwise, 3 for counterclockwise and 2 for two-times-rotation
+	 */
+	int getQuarterTurns() {
+		switch (typeIndex % 3) {
+			case 0:
+				return 1;
+			case 1:
+				return 3;
+			default:
+				return 2;
+		}
+	}
+
+	/**
+	 * Returns the {@link Rotation} object that rotates the same layers in the opposite direction.
+	 *
+	 * <p>
+	 * Applying a rotation and then its inverse leaves the cube in the same state. The inverse of a two-times-rotation is itself.</p>
+	 *
+	 * @return The inverse of the rotation, or {@code null} if the type of the rotation is invalid
+	 */
+	public Rotation getInverse() {
+
+		if (typeIndex < 0) {
+			logger.error("Invalid rotation type {}", rotationType);
+			return null;
+		}
+		int direction = typeIndex % 3;
+		int inverseTypeIndex = direction == 2 ? typeIndex : typeIndex - direction + 1 - direction;
+		return of(layerNumber, lastLayerNumber, inverseTypeIndex);
+	}
+
+	/**
+	 * Returns whether the rotation is a rotation of a middle layer {@code M, E} or {@code S}.
+	 *
+	 * @return {@code true} if the rotation is a rotation of a middle layer, {@code false} otherwise
+	 */
+	boolean isMiddleLayerRotation() {
+		return isMiddleLayerType(typeIndex);
+	}
+
+	private static boolean isMiddleLayerType(int typeIndex) {
+		return typeIndex >= MIDDLE_LAYER_TYPES_START && typeIndex < CUBE_ROTATION_TYPES_START;
+	}
+
+	/**
+	 * Returns whether the rotation is a rotation of the whole cube {@code x, y} or {@code z}.
+	 *
+	 * @return {@code true} if the rotation is a rotation of the whole cube, {@code false} otherwise
+	 */
+	public boolean isCubeRotation() {
+		return typeIndex >= CUBE_ROTATION_TYPES_START;
+	}
+
+	/**
+	 * Returns the axis of the rotation of the whole cube.
+	 *
+	 * @return 0 for {@code x}, 1 for {@code y} and 2 for {@code z}
+	 */
+	int getCubeRotationAxis() {
+		return (typeIndex - CUBE_ROTATION_TYPES_START) / 3;
+	}
+
 	/**
 	 * Returns the number of the layer in the rotation.
 	 *
+	 * <p>
+	 * If the rotation rotates a block of layers, this is the number of the first layer of the block.</p>
+	 *
 	 * @return the number of the layer in the rotation
 	 * @see Rotation
 	 */
@@ -108,6 +449,39 @@ public class Rotation {
 		return layerNumber;
 	}
 
+	/**
+	 * Returns the number of the last layer that the rotation rotates.
+	 *
+	 * @return the number of the last layer of the block, which is the same as {@link #getLayerNumber()} if only one layer is rotated
+	 */
+	public int getLastLayerNumber() {
+		return lastLayerNumber;
+	}
+
+	/**
+	 * Returns whether the rotation rotates a block of more than one layer.
+	 *
+	 * @return {@code true} if more than one layer is rotated, {@code false} otherwise
+	 */
+	public boolean isBlockRotation() {
+		return lastLayerNumber != layerNumber;
+	}
+
+	/**
+	 * Returns the code of the rotation.
+	 *
+	 * <p>
+	 * The code is a non-negative integer that identifies the rotation, and can be turned back into the rotation with {@link #fromCode(int)}. The code of the rotation of a single layer is {@code layerNumber * NUMBER_OF_TYPES + typeIndex}.</p>
+	 *
+	 * @return The code of the rotation, or -1 if the type of the rotation is invalid
+	 */
+	public int getCode() {
+		if (typeIndex < 0) {
+			return -1;
+		}
+		return ((lastLayerNumber - layerNumber) << BLOCK_CODE_SHIFT) + layerNumber * NUMBER_OF_TYPES + typeIndex;
+	}
+
 	/**
 	 * Returns the side position in the rotation.
 	 *
@@ -123,12 +497,12 @@ public class Rotation {
 	/**
 	 * Returns the name of the rotation.
 	 *
-	 * The name of the rotation means a string that consists of the number of the layer rotated and the type of the rotation concatenated.
+	 * The name of the rotation means a string that consists of the number of the layer rotated and the type of the rotation concatenated. The name of a block of layers is written as described at {@link Rotation}.
 	 *
 	 * @return the name of the rotation.
 	 */
 	public String getName() {
-		return layerNumber + rotationType;
+		return name;
 	}
 
 	/**
@@ -144,6 +518,35 @@ public class Rotation {
 		return getName();
 	}
 
+	/**
+	 * Returns whether {@code object} is a {@link Rotation} with the same layer number and type as this rotation.
+	 *
+	 * @param object The object to compare with
+	 * @return {@code true} if {@code object} is the same rotation, {@code false} otherwise
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		}
+		if (!(object instanceof Rotation)) {
+			return false;
+		}
+		Rotation other = (Rotation) object;
+		return layerNumber == other.layerNumber && lastLayerNumber == other.lastLayerNumber
+				&& rotationType.equals(other.rotationType);
+	}
+
+	/**
+	 * Returns the hash code of this rotation.
+	 *
+	 * @return The hash code of this rotation
+	 */
+	@Override
+	public int hashCode() {
+		return typeIndex < 0 ? name.hashCode() : getCode();
+	}
+
 	/**
 	 * Generates a new {@link Rotation} for a {@code targetCubeSize} sized cube.
 	 *
@@ -154,12 +557,12 @@ public class Rotation {
 	 */
 	public static Rotation generateNewRotation(int targetCubeSize) {
 
-		Random random = new Random();
+		ThreadLocalRandom random = ThreadLocalRandom.current();
 		int newRotationIndex = random.nextInt(BASIC_ROTATIONS.size());
 		int maxLayerNumber = targetCubeSize / 2;
 		int layerNumber = random.nextInt(maxLayerNumber) + 1;
 
-		Rotation rotation = new Rotation(layerNumber, BASIC_ROTATIONS.get(newRotationIndex).getRotationType());
+		Rotation rotation = of(layerNumber, BASIC_ROTATIONS.get(newRotationIndex).getTypeIndex());
 		logger.info("Generated rotation {} ", rotation);
 		return rotation;
 	}
@@ -175,17 +578,11 @@ public class Rotation {
 	 */
 	public static Rotation generateNewDifferentRotation(int targetCubeSize, Rotation previousRotation) {
 
-		Character previous = previousRotation.getSidePosition();
+		char previous = previousRotation.getSidePosition();
 		Rotation nextRotation;
-		boolean isSame = true;
 		do {
 			nextRotation = generateNewRotation(targetCubeSize);
-			Character next = nextRotation.getSidePosition();
-
-			if (!previous.equals(next)) {
-				isSame = false;
-			}
-		} while (isSame);
+		} while (nextRotation.getSidePosition() == previous);
 
 		return nextRotation;
 	}
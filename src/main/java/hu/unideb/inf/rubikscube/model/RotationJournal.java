@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class keeps the rotations applied to a cube, so they can be undone and redone.
+ *
+ * <p>
+ * The journal only holds references to the shared {@link Rotation} objects, and at most {@code capacity} of them can be undone, the oldest rotations are dropped when more are recorded. A rotation that rotates the same layers around the same side as the last recorded rotation is merged into it, for example {@code R} after {@code R} is kept as {@code R2}, and {@code R'} after {@code R} removes both of them.</p>
+ *
+ * @see Cube#undo()
+ * @see Cube#redo()
+ * @author kinga
+ */
+class RotationJournal {
+
+	/**
+	 * The default number of rotations that can be undone, is {@value}.
+	 */
+	static final int DEFAULT_CAPACITY = 1000;
+
+	private final Deque<Rotation> undoStack = new ArrayDeque<>();
+	private final Deque<Rotation> redoStack = new ArrayDeque<>();
+	private int capacity;
+
+	private static Logger logger = LoggerFactory.getLogger(RotationJournal.class);
+
+	/**
+	 * Creates an empty journal that keeps at most {@code capacity} rotations.
+	 *
+	 * @param capacity The number of rotations that can be undone
+	 */
+	RotationJournal(int capacity) {
+		setCapacity(capacity);
+	}
+
+	/**
+	 * Sets the number of rotations that can be undone, the oldest rotations above it are dropped.
+	 *
+	 * @param capacity The number of rotations that can be undone, 0 turns off the journal
+	 */
+	void setCapacity(int capacity) {
+		if (capacity < 0) {
+			logger.error("Invalid journal capacity {}, setting to 0", capacity);
+			capacity = 0;
+		}
+		this.capacity = capacity;
+		trim();
+		while (redoStack.size() > capacity) {
+			redoStack.pollLast();
+		}
+	}
+
+	/**
+	 * Returns the number of rotations that can be undone at most.
+	 *
+	 * @return The capacity of the journal
+	 */
+	int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Records a newly applied {@code rotation}, which discards the rotations that could be redone.
+	 *
+	 * @param rotation The rotation applied to the cube
+	 */
+	void record(Rotation rotation) {
+
+		redoStack.clear();
+		Rotation last = undoStack.peekLast();
+		if (last != null && isSameLayers(last, rotation)) {
+			undoStack.pollLast();
+			int quarterTurns = (last.getQuarterTurns() + rotation.getQuarterTurns()) & 3;
+			if (quarterTurns != 0) {
+				int side = last.getTypeIndex() / 3;
+				undoStack.addLast(Rotation.of(last.getLayerNumber(), last.getLastLayerNumber(), Rotation.typeIndex(side, quarterTurns)));
+			}
+			return;
+		}
+		undoStack.addLast(rotation);
+		trim();
+	}
+
+	/**
+	 * Removes the last recorded rotation, which can be redone afterwards.
+	 *
+	 * @return The rotation to be undone, or {@code null} if there's nothing to undo
+	 */
+	Rotation undo() {
+		Rotation rotation = undoStack.pollLast();
+		if (rotation != null) {
+			redoStack.addLast(rotation);
+		}
+		return rotation;
+	}
+
+	/**
+	 * Records the last undone rotation again.
+	 *
+	 * @return The rotation to be redone, or {@code null} if there's nothing to redo
+	 */
+	Rotation redo() {
+		Rotation rotation = redoStack.pollLast();
+		if (rotation != null) {
+			undoStack.addLast(rotation);
+		}
+		return rotation;
+	}
+
+	/**
+	 * Returns the number of rotations that can be undone.
+	 *
+	 * @return The number of rotations that can be undone
+	 */
+	int getUndoCount() {
+		return undoStack.size();
+	}
+
+	/**
+	 * Returns the number of rotations that can be redone.
+	 *
+	 * @return The number of rotations that can be redone
+	 */
+	int getRedoCount() {
+		return redoStack.size();
+	}
+
+	/**
+	 * Removes every rotation from the journal.
+	 */
+	void clear() {
+		undoStack.clear();
+		redoStack.clear();
+	}
+
+	private void trim() {
+		while (undoStack.size() > capacity) {
+			undoStack.pollFirst();
+		}
+	}
+
+	private static boolean isSameLayers(Rotation first, Rotation second) {
+		return first.getTypeIndex() / 3 == second.getTypeIndex() / 3
+				&& first.getLayerNumber() == second.getLayerNumber()
+				&& first.getLastLayerNumber() == second.getLastLayerNumber();
+	}
+}
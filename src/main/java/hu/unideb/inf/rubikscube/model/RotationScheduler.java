@@ -0,0 +1,171 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class applies sequences of rotations to a cube so that the rotations that don't interfere are applied at the same time.
+ *
+ * <p>
+ * Rotations of different layers around the same axis, like {@code 2R} and {@code 5L'} on a big cube, move disjoint sets of stickers, so they can be applied in any order, even at the same time. The scheduler splits a sequence into groups of such rotations, keeping the order of the sequence, and the rotations of a group are applied by the threads of a {@link ForkJoinPool}. The final state of the cube is the same as if the rotations were applied one after the other.</p>
+ * <p>
+ * A group is closed when a rotation around another axis, or a rotation of a layer already in the group comes. The rotations of the whole cube, and the rotations that {@link SequenceOptimizer} keeps as they are, form groups on their own. Groups that move fewer stickers than the threshold of the scheduler are applied by the calling thread.</p>
+ *
+ * @see Cube#rotate(Rotation)
+ * @author kinga
+ */
+public class RotationScheduler {
+
+	/**
+	 * The default number of moved stickers from which a group is applied in parallel, is {@value}.
+	 */
+	public static final int DEFAULT_THRESHOLD = 1 << 12;
+
+	private final ForkJoinPool pool;
+	private int threshold = DEFAULT_THRESHOLD;
+
+	private static Logger logger = LoggerFactory.getLogger(RotationScheduler.class);
+
+	/**
+	 * Creates a scheduler that uses the common {@link ForkJoinPool}.
+	 */
+	public RotationScheduler() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a scheduler that uses the threads of the specified {@code pool}.
+	 *
+	 * @param pool The pool whose threads apply the rotations
+	 */
+	public RotationScheduler(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Sets the number of moved stickers from which a group of rotations is applied in parallel.
+	 *
+	 * @param threshold The number of moved stickers, must be positive
+	 */
+	public void setThreshold(int threshold) {
+		if (threshold < 1) {
+			logger.error("Invalid threshold {}", threshold);
+			return;
+		}
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Returns the number of moved stickers from which a group of rotations is applied in parallel.
+	 *
+	 * @return The threshold of the scheduler
+	 */
+	public int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Splits the {@code rotations} into groups of rotations that move disjoint sets of stickers on a cube with a size {@code cubeSize}.
+	 *
+	 * @param rotations The rotations to be grouped
+	 * @param cubeSize The size of the cube that the rotations are applied to
+	 * @return The groups in the order of the sequence, the rotations of each group are in their original order
+	 */
+	public List<Rotation[]> group(Rotation[] rotations, int cubeSize) {
+
+		List<Rotation[]> groups = new ArrayList<>();
+		List<Rotation> group = new ArrayList<>();
+		boolean[] usedLayers = new boolean[cubeSize];
+		int[] layers = new int[2];
+		int groupAxis = -1;
+
+		for (Rotation rotation : rotations) {
+			int axis = rotation.isCubeRotation() ? -1 : SequenceOptimizer.getLayers(rotation, cubeSize, layers);
+			if (axis < 0 || axis != groupAxis || isAnyUsed(usedLayers, layers)) {
+				addGroup(groups, group);
+				groupAxis = axis;
+				for (int i = 0; i < cubeSize; ++i) {
+					usedLayers[i] = false;
+				}
+			}
+			group.add(rotation);
+			if (axis < 0) {
+				addGroup(groups, group);
+				continue;
+			}
+			for (int layer = layers[0]; layer <= layers[1]; ++layer) {
+				usedLayers[layer] = true;
+			}
+		}
+		addGroup(groups, group);
+
+		logger.debug("Grouped {} rotations into {} groups", rotations.length, groups.size());
+		return groups;
+	}
+
+	private static boolean isAnyUsed(boolean[] usedLayers, int[] layers) {
+		for (int layer = layers[0]; layer <= layers[1]; ++layer) {
+			if (usedLayers[layer]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void addGroup(List<Rotation[]> groups, List<Rotation> group) {
+		if (!group.isEmpty()) {
+			groups.add(group.toArray(new Rotation[group.size()]));
+			group.clear();
+		}
+	}
+
+	/**
+	 * Applies the {@code rotations} to the {@code cube}, the rotations of each group at the same time.
+	 *
+	 * <p>
+	 * The rotations are recorded by the cube, so they can be undone one by one, see {@link Cube#undo()}.</p>
+	 *
+	 * @param cube The cube to be rotated
+	 * @param rotations The rotations to be applied
+	 */
+	public void apply(Cube cube, Rotation[] rotations) {
+
+		int movedPerLayer = 4 * cube.getCubeSize();
+		for (Rotation[] group : group(rotations, cube.getCubeSize())) {
+			if (group.length == 1 || countLayers(group) * movedPerLayer < threshold) {
+				for (Rotation rotation : group) {
+					cube.rotate(rotation);
+				}
+			} else {
+				cube.rotateConcurrently(group, pool);
+			}
+		}
+		logger.info("{} rotations applied to the cube", rotations.length);
+	}
+
+	private static int countLayers(Rotation[] group) {
+		int count = 0;
+		for (Rotation rotation : group) {
+			count += rotation.getLastLayerNumber() - rotation.getLayerNumber() + 1;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class generates any number of scrambles for cubes with a given size, for example to produce a corpus of scrambles.
+ *
+ * <p>
+ * The scramble with a given index only depends on the seed of the generator and the index, so the scrambles can be generated in any order and by any number of threads, and the same seed always gives the same scrambles. The scrambles are generated the same way as by a {@link Scrambler}, but without creating a scrambler for each of them.</p>
+ * <p>
+ * For example, a million scrambles for a 4x4 cube can be written to a file like this:</p>
+ * <pre>
+ *	try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+ *		new ScrambleGenerator(4, seed).writeTo(channel, 1000000);
+ *	}
+ * </pre>
+ *
+ * @see Scrambler
+ * @author kinga
+ */
+public class ScrambleGenerator {
+
+	//The number of scrambles generated before they are written, and the number of them in one task
+	private static final int BATCH_SIZE = 1 << 14;
+	private static final int CHUNK_SIZE = 256;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final int cubeSize;
+	private final long seed;
+
+	private static Logger logger = LoggerFactory.getLogger(ScrambleGenerator.class);
+
+	/**
+	 * Creates a generator of scrambles for cubes with a size {@code cubeSize}.
+	 *
+	 * @param cubeSize The size of the cube that the scrambles must be applicable on
+	 * @param seed The seed the scrambles are generated from
+	 */
+	public ScrambleGenerator(int cubeSize, long seed) {
+		this.cubeSize = cubeSize;
+		this.seed = seed;
+		logger.info("Scramble generator created for cubesize {} with seed {}", cubeSize, seed);
+	}
+
+	/**
+	 * Returns the scramble with the specified {@code index}.
+	 *
+	 * @param index The index of the scramble
+	 * @return The scramble with {@code index}
+	 */
+	public Rotation[] getScramble(long index) {
+		Rotation[] scramble = new Rotation[Scrambler.getScrambleLength(cubeSize)];
+		Scrambler.generate(scramble, cubeSize, new SplittableRandom(scrambleSeed(index)));
+		return scramble;
+	}
+
+	/**
+	 * Returns the seed of the random generator of the scramble with the specified {@code index}.
+	 *
+	 * <p>
+	 * The index is mixed into the seed of the generator, so the random generators of neighbouring scrambles are independent.</p>
+	 */
+	private long scrambleSeed(long index) {
+		long mixed = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+		mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+		mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+		return mixed ^ (mixed >>> 31);
+	}
+
+	/**
+	 * Returns the stream of the first {@code count} scrambles, in the order of their indices.
+	 *
+	 * <p>
+	 * The scrambles are generated when the stream is consumed, so the stream needs constant memory, and a parallel stream gives the same scrambles.</p>
+	 *
+	 * @param count The number of scrambles
+	 * @return The stream of the scrambles
+	 */
+	public Stream<Rotation[]> stream(long count) {
+		return LongStream.range(0, count).mapToObj(this::getScramble);
+	}
+
+	/**
+	 * Writes the first {@code count} scrambles to the {@code channel}, each of them in a separate line in the format of {@link Scrambler#toString()}.
+	 *
+	 * <p>
+	 * The scrambles are generated by the threads of the common {@link java.util.concurrent.ForkJoinPool} in batches, and each batch is written in the order of the indices through a buffer, so the memory needed doesn't depend on {@code count}. The lines are encoded in ASCII.</p>
+	 *
+	 * @param channel The channel to write the scrambles to
+	 * @param count The number of scrambles
+	 * @throws IOException If the scrambles could not be written to the channel
+	 */
+	public void writeTo(WritableByteChannel channel, long count) throws IOException {
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		for (long batchStart = 0; batchStart < count; batchStart += BATCH_SIZE) {
+			long first = batchStart;
+			int batchSize = (int) Math.min(BATCH_SIZE, count - batchStart);
+			int chunks = (batchSize + CHUNK_SIZE - 1) / CHUNK_SIZE;
+			byte[][] encodedChunks = IntStream.range(0, chunks).parallel()
+					.mapToObj(chunk -> encode(first + chunk * CHUNK_SIZE, Math.min(CHUNK_SIZE, batchSize - chunk * CHUNK_SIZE)))
+					.toArray(byte[][]::new);
+
+			for (byte[] encodedChunk : encodedChunks) {
+				int offset = 0;
+				while (offset < encodedChunk.length) {
+					int length = Math.min(buffer.remaining(), encodedChunk.length - offset);
+					buffer.put(encodedChunk, offset, length);
+					offset += length;
+					if (!buffer.hasRemaining()) {
+						flush(channel, buffer);
+					}
+				}
+			}
+			logger.debug("Written {} scrambles", batchStart + batchSize);
+		}
+		flush(channel, buffer);
+		logger.info("Written {} scrambles for cubesize {} with seed {}", count, cubeSize, seed);
+	}
+
+	/**
+	 * Returns the lines of {@code count} scrambles starting at the index {@code first}, encoded in ASCII.
+	 */
+	private byte[] encode(long first, int count) {
+		StringBuilder lines = new StringBuilder();
+		Rotation[] scramble = new Rotation[Scrambler.getScrambleLength(cubeSize)];
+		for (long index = first; index < first + count; ++index) {
+			Scrambler.generate(scramble, cubeSize, new SplittableRandom(scrambleSeed(index)));
+			for (int i = 0; i < scramble.length; ++i) {
+				if (i > 0) {
+					lines.append(' ');
+				}
+				lines.append(scramble[i].getName());
+			}
+			lines.append('\n');
+		}
+		return lines.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static void flush(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Returns the size of the cubes the scrambles are generated for.
+	 *
+	 * @return The size of the cubes
+	 */
+	public int getCubeSize() {
+		return cubeSize;
+	}
+
+	/**
+	 * Returns the seed the scrambles are generated from.
+	 *
+	 * @return The seed of the generator
+	 */
+	public long getSeed() {
+		return seed;
+	}
+}
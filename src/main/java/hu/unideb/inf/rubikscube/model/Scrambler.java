@@ -15,6 +15,9 @@
  */
 package hu.unideb.inf.rubikscube.model;
 
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,16 +29,28 @@ import org.slf4j.LoggerFactory;
  *
  * <p>
  * A scramble is an actual sequence of rotations which can be applied to a cube causing a disorder. Each cube with different size needs a different amount of scrambling to get an acceptable amount of disorder.</p>
+ * <p>
+ * Each rotation of a scramble rotates a side different from the sides of the two rotations before it. The next rotation is chosen directly from the rotations allowed after the previous two, so no rotation has to be generated again. Each scrambler has its own {@link SplittableRandom} generator, so scramblers used by different threads don't share any state, and the scrambles of a scrambler created with a seed are always the same.</p>
  *
  * @see Rotation
  * @author kinga
  */
 public class Scrambler {
 
+	//The sides R, U, F, L, D, B are numbered in the order of the type indices of their rotations, see Rotation#getTypeIndex()
+	private static final int SIDES = 6;
+	private static final int NO_SIDE = SIDES;
+	private static final int DIRECTIONS = 3;
+
+	//The sides that can be rotated after the sides of the two previous rotations, NO_SIDE if there's no such rotation
+	private static final int[][][] ALLOWED_SIDES = createAllowedSides();
+
 	private Logger logger = LoggerFactory.getLogger(Scrambler.class);
 
 	private Rotation[] scramble;
 	private int targetCubeSize;
+	private final long seed;
+	private final SplittableRandom random;
 
 	/**
 	 * Creates a {@link Scrambler} object for a cube with a size {@code targetCubeSize}.
@@ -45,45 +60,103 @@ public class Scrambler {
 	 * @param targetCubeSize The size of the cube that the scramble must be applicable on
 	 */
 	public Scrambler(int targetCubeSize) {
+		this(targetCubeSize, ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Creates a {@link Scrambler} object for a cube with a size {@code targetCubeSize}, whose scrambles are generated from the specified {@code seed}.
+	 *
+	 * Scramblers created with the same {@code targetCubeSize} and {@code seed} generate the same scrambles in the same order.
+	 *
+	 * @param targetCubeSize The size of the cube that the scramble must be applicable on
+	 * @param seed The seed of the random generator of the scrambler
+	 */
+	public Scrambler(int targetCubeSize, long seed) {
 		this.targetCubeSize = targetCubeSize;
-		int scrambleLength = 0;
+		this.seed = seed;
+		this.random = new SplittableRandom(seed);
+		int scrambleLength = getScrambleLength(targetCubeSize);
+		scramble = new Rotation[scrambleLength];
+
+		generateNewScramble();
+		logger.info("New scrambler created for cubesize {} with a length of {} and seed {}",
+				targetCubeSize, scrambleLength, seed);
+	}
+
+	/**
+	 * Returns the length of the scrambles for a cube with a size {@code targetCubeSize}.
+	 *
+	 * @param targetCubeSize The size of the cube
+	 * @return The number of rotations in a scramble
+	 */
+	public static int getScrambleLength(int targetCubeSize) {
 		switch (targetCubeSize) {
 			case 2:
-				scrambleLength = 15;
-				break;
+				return 15;
 			case 3:
-				scrambleLength = 25;
-				break;
+				return 25;
 			default:
-				scrambleLength = targetCubeSize * 20 - 40;
-				break;
-
+				return targetCubeSize * 20 - 40;
 		}
-		scramble = new Rotation[scrambleLength];
+	}
 
-		generateNewScramble();
-		logger.info("New scrambler created for cubesize {} with a length of {}",
-				targetCubeSize, scrambleLength);
+	private static int[][][] createAllowedSides() {
+		int[][][] allowedSides = new int[SIDES + 1][SIDES + 1][];
+		for (int beforePrevious = 0; beforePrevious <= SIDES; ++beforePrevious) {
+			for (int previous = 0; previous <= SIDES; ++previous) {
+				int[] sides = new int[SIDES];
+				int count = 0;
+				for (int side = 0; side < SIDES; ++side) {
+					if (side != previous && side != beforePrevious) {
+						sides[count++] = side;
+					}
+				}
+				allowedSides[beforePrevious][previous] = Arrays.copyOf(sides, count);
+			}
+		}
+		return allowedSides;
 	}
 
 	/**
 	 * This method generates a new scramble for cubes with a size specified in the constructor.
 	 */
 	public void generateNewScramble() {
+		generate(scramble, targetCubeSize, random);
+		logger.info("Generated new scramble {}", scramble);
+	}
+
+	/**
+	 * Fills the {@code scramble} with random rotations for a cube with a size {@code targetCubeSize}.
+	 *
+	 * @param scramble The array to be filled
+	 * @param targetCubeSize The size of the cube that the scramble must be applicable on
+	 * @param random The random generator the rotations are chosen with
+	 */
+	static void generate(Rotation[] scramble, int targetCubeSize, SplittableRandom random) {
+
+		int maxLayerNumber = Math.max(1, targetCubeSize / 2);
+		int beforePrevious = NO_SIDE;
+		int previous = NO_SIDE;
+		for (int i = 0; i < scramble.length; ++i) {
+			//A single random number chooses the side, the direction and the layer, each allowed rotation equally likely
+			int[] sides = ALLOWED_SIDES[beforePrevious][previous];
+			int choice = random.nextInt(sides.length * DIRECTIONS * maxLayerNumber);
+			int side = sides[choice % sides.length];
+			choice /= sides.length;
+			scramble[i] = Rotation.of(choice / DIRECTIONS + 1, side * DIRECTIONS + choice % DIRECTIONS);
 
-		scramble[0] = Rotation.generateNewRotation(targetCubeSize);
-		scramble[1] = Rotation.generateNewDifferentRotation(targetCubeSize, scramble[0]);
-
-		for (int i = 2; i < scramble.length; ++i) {
-			Character currentSide;
-			Character previousSide;
-			do {
-				scramble[i] = Rotation.generateNewDifferentRotation(targetCubeSize, scramble[i - 1]);
-				currentSide = scramble[i].getSidePosition();
-				previousSide = scramble[i - 2].getSidePosition();
-			} while (currentSide.equals(previousSide));
+			beforePrevious = previous;
+			previous = side;
 		}
-		logger.info("Generated new scramble {}", scramble);
+	}
+
+	/**
+	 * Returns the seed of the random generator of the scrambler.
+	 *
+	 * @return The seed of the scrambler
+	 */
+	public long getSeed() {
+		return seed;
 	}
 
 	/**
@@ -104,11 +177,11 @@ public class Scrambler {
 	 */
 	@Override
 	public String toString() {
-		String theScramble = scramble[0].getName();
+		StringBuilder theScramble = new StringBuilder(scramble[0].getName());
 		for (int i = 1; i < scramble.length; ++i) {
-			theScramble += " " + scramble[i].getName();
+			theScramble.append(' ').append(scramble[i].getName());
 		}
 
-		return theScramble;
+		return theScramble.toString();
 	}
 }
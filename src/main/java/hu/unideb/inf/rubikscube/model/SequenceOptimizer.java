@@ -0,0 +1,229 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class shortens sequences of rotations before they are applied to a cube.
+ *
+ * <p>
+ * Rotations around the same axis, like {@code R}, {@code 2L'}, {@code M} and {@code x}, can be applied in any order, so a run of such rotations only depends on how many times each layer of the axis is rotated in total. The optimizer collects these totals for each run, cancels the runs that don't change the cube, so the runs around them can be merged too, and replaces a run with the fewest rotations of blocks of layers that give the same totals, if that's shorter than the original run. For example {@code R U U' R'} is cancelled completely, {@code R 2R} becomes {@code 2Rw}, and {@code R M' L'} becomes {@code x}.</p>
+ * <p>
+ * The optimized sequence has the same effect on a cube as the original one. Rotations that are invalid on the cube, that rotate the stickers around a side without rotating the side itself, and the rotations of the middle layers on cubes with an even size are kept as they are.</p>
+ *
+ * @see Rotation
+ * @author kinga
+ */
+public class SequenceOptimizer {
+
+	//The sides of the rotations in the order of their type indices, see Rotation#getTypeIndex()
+	private static final int FIRST_NEGATIVE_SIDE = 3;
+	private static final int FIRST_MIDDLE_LAYER = 6;
+	private static final int FIRST_CUBE_ROTATION = 9;
+	private static final int[] MIDDLE_LAYER_AXES = {1, 0, 2};
+
+	private static Logger logger = LoggerFactory.getLogger(SequenceOptimizer.class);
+
+	private SequenceOptimizer() {
+	}
+
+	/**
+	 * A run of rotations around the same axis.
+	 *
+	 * <p>
+	 * The layers of the axis are numbered from the side {@code L, D} or {@code B}, and each of them has the number of clockwise quarter turns in the direction of {@code R, U} or {@code F} respectively.</p>
+	 */
+	private static class Run {
+
+		private final int axis;
+		private final int[] quarterTurns;
+		private final List<Rotation> rotations = new ArrayList<>();
+
+		Run(int axis, int cubeSize) {
+			this.axis = axis;
+			this.quarterTurns = axis < 0 ? null : new int[cubeSize];
+		}
+
+		boolean isIdentity() {
+			if (axis < 0) {
+				return false;
+			}
+			for (int turns : quarterTurns) {
+				if (turns != 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Returns the optimized sequence of the specified {@code rotations} for a cube with a size {@code cubeSize}.
+	 *
+	 * @param rotations The rotations to be optimized
+	 * @param cubeSize The size of the cube that the rotations are applied to
+	 * @return A sequence of rotations that has the same effect on the cube as {@code rotations}, and is not longer
+	 */
+	public static Rotation[] optimize(Rotation[] rotations, int cubeSize) {
+
+		List<Run> runs = new ArrayList<>();
+		int[] layers = new int[2];
+
+		for (Rotation rotation : rotations) {
+			int axis = getLayers(rotation, cubeSize, layers);
+			Run last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+			if (axis < 0 || last == null || last.axis != axis) {
+				last = new Run(axis, cubeSize);
+				runs.add(last);
+			}
+			last.rotations.add(rotation);
+			if (axis < 0) {
+				continue;
+			}
+
+			int turns = getQuarterTurns(rotation);
+			for (int layer = layers[0]; layer <= layers[1]; ++layer) {
+				last.quarterTurns[layer] = (last.quarterTurns[layer] + turns) & 3;
+			}
+
+			//A cancelled run is removed, so the next rotations can be merged into the run before it
+			if (last.isIdentity()) {
+				runs.remove(runs.size() - 1);
+			}
+		}
+
+		List<Rotation> optimized = new ArrayList<>();
+		for (Run run : runs) {
+			List<Rotation> shortest = run.axis < 0 ? run.rotations : toRotations(run, cubeSize);
+			optimized.addAll(shortest.size() < run.rotations.size() ? shortest : run.rotations);
+		}
+
+		logger.debug("Optimized {} rotations to {}", rotations.length, optimized.size());
+		return optimized.toArray(new Rotation[optimized.size()]);
+	}
+
+	/**
+	 * Stores the first and the last layer of the axis that the {@code rotation} rotates into {@code layers}.
+	 *
+	 * <p>
+	 * The layers of the axis are numbered from 0 starting at the side {@code L, D} or {@code B}. Rotations of different layers of the same axis move different stickers.</p>
+	 *
+	 * @return The axis of the rotation, 0 for {@code x}, 1 for {@code y} and 2 for {@code z}, or -1 if the rotation can't be optimized
+	 */
+	static int getLayers(Rotation rotation, int cubeSize, int[] layers) {
+
+		int typeIndex = rotation.getTypeIndex();
+		if (typeIndex < 0) {
+			return -1;
+		}
+
+		int side = typeIndex / 3;
+		int axis = side % 3;
+		if (side >= FIRST_CUBE_ROTATION) {
+			layers[0] = 0;
+			layers[1] = cubeSize - 1;
+			return axis;
+		}
+		if (side >= FIRST_MIDDLE_LAYER) {
+			//On cubes with an even size the stickers moved by M and S are not in a single layer
+			if (cubeSize % 2 == 0) {
+				return -1;
+			}
+			layers[0] = cubeSize / 2;
+			layers[1] = layers[0];
+			return MIDDLE_LAYER_AXES[side - FIRST_MIDDLE_LAYER];
+		}
+
+		//The layer with the number cubeSize is the most outer layer of the opposite side, which is rotated without that side
+		int first = rotation.getLayerNumber();
+		int last = rotation.getLastLayerNumber();
+		if (first < 1 || last >= cubeSize) {
+			return -1;
+		}
+		if (side < FIRST_NEGATIVE_SIDE) {
+			layers[0] = cubeSize - last;
+			layers[1] = cubeSize - first;
+		} else {
+			layers[0] = first - 1;
+			layers[1] = last - 1;
+		}
+		return axis;
+	}
+
+	/**
+	 * Returns the quarter turns of the {@code rotation} in the direction of {@code R, U} or {@code F}.
+	 */
+	private static int getQuarterTurns(Rotation rotation) {
+
+		int side = rotation.getTypeIndex() / 3;
+		int turns = rotation.getQuarterTurns();
+		//L, D, B and M turn the other way
+		boolean isOpposite = (side >= FIRST_NEGATIVE_SIDE && side < FIRST_MIDDLE_LAYER) || side == FIRST_MIDDLE_LAYER + 1;
+		return isOpposite ? (4 - turns) & 3 : turns;
+	}
+
+	/**
+	 * Returns the fewest rotations that have the same effect as the {@code run}.
+	 *
+	 * <p>
+	 * Each candidate rotates the whole cube first, then the remaining blocks of neighbouring layers with the same number of turns are rotated one by one.</p>
+	 */
+	private static List<Rotation> toRotations(Run run, int cubeSize) {
+
+		List<Rotation> shortest = null;
+		for (int wholeTurns = 0; wholeTurns < 4; ++wholeTurns) {
+			List<Rotation> candidate = new ArrayList<>();
+			if (wholeTurns != 0) {
+				candidate.add(Rotation.of(0, Rotation.typeIndex(FIRST_CUBE_ROTATION + run.axis, wholeTurns)));
+			}
+
+			int start = 0;
+			while (start < cubeSize) {
+				int turns = (run.quarterTurns[start] - wholeTurns) & 3;
+				int end = start;
+				while (end + 1 < cubeSize && ((run.quarterTurns[end + 1] - wholeTurns) & 3) == turns) {
+					end++;
+				}
+				if (turns != 0) {
+					candidate.add(toBlock(run.axis, start, end, turns, cubeSize));
+				}
+				start = end + 1;
+			}
+
+			if (shortest == null || candidate.size() < shortest.size()) {
+				shortest = candidate;
+			}
+		}
+		return shortest;
+	}
+
+	private static Rotation toBlock(int axis, int start, int end, int turns, int cubeSize) {
+
+		if (start == 0 && end == cubeSize - 1) {
+			return Rotation.of(0, Rotation.typeIndex(FIRST_CUBE_ROTATION + axis, turns));
+		}
+		//Blocks containing a most outer layer are rotated from its side, other blocks from the closer side
+		boolean isFromPositiveSide = end == cubeSize - 1 || (start != 0 && start + end >= cubeSize - 1);
+		if (isFromPositiveSide) {
+			return Rotation.of(cubeSize - end, cubeSize - start, Rotation.typeIndex(axis, turns));
+		}
+		return Rotation.of(start + 1, end + 1, Rotation.typeIndex(FIRST_NEGATIVE_SIDE + axis, (4 - turns) & 3));
+	}
+}
@@ -15,6 +15,7 @@
  */
 package hu.unideb.inf.rubikscube.model;
 
+import java.util.Arrays;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,13 +24,24 @@ import org.slf4j.LoggerFactory;
  *
  * A side consists of {@link StickerColor} objects, and has also a position which identifies its place on the cube. Possible values of the position of the side can be {@code U, D, R, L, F, B}. If the size of the side is {@code x}, then the number of colors on it is {@code x * x}, so only colors on the actual side are kept track. A side has no information about its surroundings.
  *
+ * <p>
+ * The colors are not stored as objects, but as the ordinals of the {@link StickerColor} values in a {@code byte} array, row by row. A side created by a {@link Cube} is only a view of the part of the sticker array of the cube that belongs to the side, so modifying the side modifies the cube too.</p>
+ * <p>
+ * Rotating the side doesn't move its stickers, only its orientation is changed, which tells how many times the stored stickers have to be rotated clockwise to get the actual colors of the side. The indices of {@link #getColorAt(int, int)} and {@link #setColorAt(int, int, StickerColor)} are always interpreted according to the orientation. The stored stickers are rotated only by {@link #normalize()}.</p>
+ *
  * @author kinga
  */
 public class Side {
 
+	private static final StickerColor[] COLORS = StickerColor.values();
+
 	private int sideSize;
-	private StickerColor[][] colors;
+	private byte[] stickers;
+	private int offset;
+	private byte[] orientations;
+	private int orientationIndex;
 	private char position;
+	private StateTracker tracker;
 
 	private static Logger logger = LoggerFactory.getLogger(Side.class);
 
@@ -44,39 +56,40 @@ public class Side {
 	 * @see Side
 	 */
 	public Side(int sideSize, StickerColor color, char position) {
-
-		this.position = position;
-		this.sideSize = sideSize;
-		colors = new StickerColor[sideSize][sideSize];
-
-		for (int i = 0; i < sideSize; ++i) {
-			for (int j = 0; j < sideSize; ++j) {
-				colors[i][j] = color;
-			}
-		}
+		this(new byte[sideSize * sideSize], 0, new byte[1], 0, sideSize, position, null);
+		Arrays.fill(stickers, (byte) color.ordinal());
 
 		logger.info("Side created at sideposition {} with color {}", position, color);
 	}
 
+	/**
+	 * Creates a new {@link Side} object as a view of the {@code stickers} array of a cube.
+	 *
+	 * The colors of the side are the {@code sideSize * sideSize} elements of {@code stickers} starting at {@code offset}, and its orientation is the element of {@code orientations} at {@code orientationIndex}. When a color of the side is changed, the {@code tracker} of the state of the cube is updated too.
+	 *
+	 * @param stickers The sticker array the side is stored in
+	 * @param offset The index of the first sticker of the side
+	 * @param orientations The orientation array the orientation of the side is stored in
+	 * @param orientationIndex The index of the orientation of the side
+	 * @param sideSize The size of the side
+	 * @param position The position where the side is placed at
+	 * @param tracker The tracker of the state of the cube, or {@code null} if the side doesn't belong to a cube
+	 */
+	Side(byte[] stickers, int offset, byte[] orientations, int orientationIndex, int sideSize, char position, StateTracker tracker) {
+		this.stickers = stickers;
+		this.offset = offset;
+		this.orientations = orientations;
+		this.orientationIndex = orientationIndex;
+		this.sideSize = sideSize;
+		this.position = position;
+		this.tracker = tracker;
+	}
+
 	/**
 	 * This method rotates the side in clockwise direction.
 	 */
 	public void rotateMainSideClockwise() {
-
-		//On the side: tanspose, then reverse each row
-		StickerColor[][] newColors = new StickerColor[sideSize][sideSize];
-		for (int i = 0; i < sideSize; ++i) {
-			for (int j = 0; j < sideSize; ++j) {
-				newColors[i][j] = colors[j][i];
-			}
-		}
-
-		for (int i = 0; i < sideSize; ++i) {
-			for (int j = 0; j < sideSize; ++j) {
-				colors[i][j] = newColors[i][sideSize - j - 1];
-			}
-		}
-
+		turn(1);
 		logger.info("Mainside {} rotated clockwise", position);
 	}
 
@@ -84,21 +97,110 @@ public class Side {
 	 * This method rotates the side in counterclockwise direction.
 	 */
 	public void rotateMainSideCounterClockwise() {
+		turn(3);
+		logger.info("Mainside {} rotated counterclockwise", position);
+	}
 
-		//On the side: transpose, then reverse each cols:
-		StickerColor[][] newColors = new StickerColor[sideSize][sideSize];
-		for (int i = 0; i < sideSize; ++i) {
-			for (int j = 0; j < sideSize; ++j) {
-				newColors[i][j] = colors[j][i];
-			}
+	/**
+	 * Rotates the side clockwise {@code quarterTurns} times by changing only its orientation.
+	 *
+	 * @param quarterTurns The number of clockwise quarter turns
+	 */
+	void turn(int quarterTurns) {
+		orientations[orientationIndex] = (byte) ((orientations[orientationIndex] + quarterTurns) & 3);
+	}
+
+	/**
+	 * Returns the orientation of the side.
+	 *
+	 * The orientation is the number of clockwise quarter turns, in the interval {@code [0, 3]}, that the stored stickers have to be rotated with to get the actual colors of the side.
+	 *
+	 * @return The orientation of the side
+	 */
+	public int getOrientation() {
+		return orientations[orientationIndex];
+	}
+
+	/**
+	 * Rotates the stored stickers of the side according to its orientation, so that the orientation becomes 0.
+	 */
+	public void normalize() {
+
+		int orientation = getOrientation();
+		if (orientation == 0) {
+			return;
 		}
 
-		for (int i = 0; i < sideSize; ++i) {
-			for (int j = 0; j < sideSize; ++j) {
-				colors[i][j] = newColors[sideSize - i - 1][j];
+		//On each ring of the side: cycle the 4 stickers that take each other's place
+		int last = sideSize - 1;
+		for (int ring = 0; ring < sideSize / 2; ++ring) {
+			for (int k = ring; k < last - ring; ++k) {
+				int top = offset + ring * sideSize + k;
+				int right = offset + k * sideSize + last - ring;
+				int bottom = offset + (last - ring) * sideSize + last - k;
+				int left = offset + (last - k) * sideSize + ring;
+
+				byte temp = stickers[top];
+				switch (orientation) {
+					case 1:
+						stickers[top] = stickers[left];
+						stickers[left] = stickers[bottom];
+						stickers[bottom] = stickers[right];
+						stickers[right] = temp;
+						break;
+					case 2:
+						stickers[top] = stickers[bottom];
+						stickers[bottom] = temp;
+						temp = stickers[left];
+						stickers[left] = stickers[right];
+						stickers[right] = temp;
+						break;
+					default:
+						stickers[top] = stickers[right];
+						stickers[right] = stickers[bottom];
+						stickers[bottom] = stickers[left];
+						stickers[left] = temp;
+						break;
+				}
 			}
 		}
-		logger.info("Mainside {} rotated counterclockwise", position);
+		orientations[orientationIndex] = 0;
+		if (tracker != null) {
+			tracker.recomputeSide(orientationIndex);
+		}
+
+		logger.debug("Mainside {} normalized", position);
+	}
+
+	/**
+	 * Returns the index in the sticker array where the sticker at the specified indices is stored.
+	 *
+	 * @param i Row index
+	 * @param j Column index
+	 * @return The index of the stored sticker
+	 */
+	int physicalIndex(int i, int j) {
+		switch (orientations[orientationIndex]) {
+			case 0:
+				return offset + i * sideSize + j;
+			case 1:
+				return offset + (sideSize - j - 1) * sideSize + i;
+			case 2:
+				return offset + (sideSize - i - 1) * sideSize + sideSize - j - 1;
+			default:
+				return offset + j * sideSize + sideSize - i - 1;
+		}
+	}
+
+	/**
+	 * Returns the index in the sticker array where the sticker at the specified {@code localIndex} is stored.
+	 *
+	 * @param localIndex The index of the sticker on the side, which is {@code i * sideSize + j} for row {@code i} and column {@code j}
+	 * @return The index of the stored sticker
+	 */
+	int physicalIndex(int localIndex) {
+		int i = localIndex / sideSize;
+		return physicalIndex(i, localIndex - i * sideSize);
 	}
 
 	/**
@@ -110,6 +212,15 @@ public class Side {
 		return position;
 	}
 
+	/**
+	 * Sets the position of the side on the cube.
+	 *
+	 * @param position The new position of the side
+	 */
+	void setPosition(char position) {
+		this.position = position;
+	}
+
 	/**
 	 * Returns the color on the side at the specified indices.
 	 *
@@ -118,13 +229,11 @@ public class Side {
 	 * @return The color at indices {@code i,j} on the side or {@code null} if the specified indices are out of bounds.
 	 */
 	public StickerColor getColorAt(int i, int j) {
-		try {
-			return colors[i][j];
-		} catch (ArrayIndexOutOfBoundsException exception) {
+		if (!isValidIndex(i, j)) {
 			logger.error("Invalid indices {} {}", i, j);
-			logger.error("{}", exception.getMessage());
 			return null;
 		}
+		return COLORS[stickers[physicalIndex(i, j)]];
 	}
 
 	/**
@@ -135,12 +244,23 @@ public class Side {
 	 * @param color The new color to be set
 	 */
 	public void setColorAt(int i, int j, StickerColor color) {
-		try {
-			colors[i][j] = color;
-		} catch (ArrayIndexOutOfBoundsException exception) {
+		if (!isValidIndex(i, j)) {
 			logger.error("Invalid indices {} {}", i, j);
-			logger.error("{}", exception.getMessage());
+			return;
+		}
+		if (color == null) {
+			logger.error("Invalid color null at indices {} {}", i, j);
+			return;
+		}
+		int index = physicalIndex(i, j);
+		if (tracker != null) {
+			tracker.update(index, stickers[index], color.ordinal());
 		}
+		stickers[index] = (byte) color.ordinal();
+	}
+
+	private boolean isValidIndex(int i, int j) {
+		return i >= 0 && i < sideSize && j >= 0 && j < sideSize;
 	}
 
 	/**
@@ -154,7 +274,7 @@ public class Side {
 		String side = "";
 		for (int i = 0; i < sideSize; ++i) {
 			for (int j = 0; j < sideSize; ++j) {
-				switch (colors[i][j]) {
+				switch (getColorAt(i, j)) {
 					case RED:
 						side += "r ";
 						break;
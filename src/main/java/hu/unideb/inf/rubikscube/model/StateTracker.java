@@ -0,0 +1,255 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class maintains a summary of the state of a cube while its stickers are moved.
+ *
+ * <p>
+ * The summary consists of a 64-bit Zobrist hash of the state, and the number of stickers of each color on each side. Both of them are updated with only the changed stickers, so asking for the hash or whether the cube is solved takes constant time.</p>
+ * <p>
+ * Each sticker position on a side has a random key for each color, and the hash of a side is the exclusive or of the keys of its colors. Because rotating the most outer layer only changes the orientation of the side, see {@link Side}, the hash of each stored side is kept for all four orientations, so changing the orientation or the position of a side doesn't change any of them. The hash of a side is rotated bitwise by its position on the cube, and the hash of the cube is the exclusive or of the hashes of its sides.</p>
+ * <p>
+ * A side is solved if all of its stickers have the same color, and the cube is solved if all of its sides are solved. Neither the orientation nor the position of a side matters, so these don't depend on the rotations of the whole cube.</p>
+ * <p>
+ * The tracker also remembers which stored sides had any of their stickers changed, so a {@link CubeSnapshot} only has to copy those sides.</p>
+ *
+ * @author kinga
+ */
+class StateTracker {
+
+	private static final int ORIENTATIONS = 4;
+	private static final int COLORS = StickerColor.values().length;
+	private static final int SIDE_ROTATION_BITS = 11;
+	private static final long SEED = 0x5DEECE66DL;
+
+	private static final Map<Integer, long[]> KEYS = new ConcurrentHashMap<>();
+
+	private final int sideSize;
+	private final int sideArea;
+	private final byte[] stickers;
+	private final long[] keys;
+	private final long[] sideHashes = new long[Cube.NUMBER_OF_SIDES * ORIENTATIONS];
+	private final int[] colorCounts = new int[Cube.NUMBER_OF_SIDES * COLORS];
+	private int solvedSideCount;
+	private int changedSides;
+
+	/**
+	 * Creates the summary of the {@code stickers} of a cube with a size {@code sideSize}.
+	 *
+	 * @param stickers The sticker array of the cube
+	 * @param sideSize The size of the cube
+	 */
+	StateTracker(byte[] stickers, int sideSize) {
+		this.sideSize = sideSize;
+		this.sideArea = sideSize * sideSize;
+		this.stickers = stickers;
+		this.keys = KEYS.computeIfAbsent(sideSize, StateTracker::createKeys);
+		for (int side = 0; side < Cube.NUMBER_OF_SIDES; ++side) {
+			recomputeSide(side);
+		}
+	}
+
+	/**
+	 * Creates a copy of the {@code other} tracker for the {@code stickers}, which must have the same colors as the stickers of the {@code other} tracker.
+	 *
+	 * <p>
+	 * No side of the copy is marked as changed.</p>
+	 *
+	 * @param other The tracker to be copied
+	 * @param stickers The sticker array of the cube, or {@code null} if the copy is not used for a cube
+	 */
+	StateTracker(StateTracker other, byte[] stickers) {
+		this.sideSize = other.sideSize;
+		this.sideArea = other.sideArea;
+		this.stickers = stickers;
+		this.keys = other.keys;
+		System.arraycopy(other.sideHashes, 0, sideHashes, 0, sideHashes.length);
+		System.arraycopy(other.colorCounts, 0, colorCounts, 0, colorCounts.length);
+		this.solvedSideCount = other.solvedSideCount;
+	}
+
+	/**
+	 * Creates an empty tracker that collects the changes of the stickers of a part of a cube, see {@link #newDelta()}.
+	 */
+	private StateTracker(int sideSize, long[] keys) {
+		this.sideSize = sideSize;
+		this.sideArea = sideSize * sideSize;
+		this.stickers = null;
+		this.keys = keys;
+	}
+
+	/**
+	 * Returns an empty tracker for the same size, which only collects the changes passed to {@link #update(int, int, int)}.
+	 *
+	 * <p>
+	 * Threads moving disjoint sets of stickers can update their own deltas, which are added to this tracker with {@link #merge(StateTracker)} afterwards. The changes of the hashes are combined with exclusive or, and the changes of the color counts are added, so the order of merging doesn't matter.</p>
+	 *
+	 * @return An empty delta tracker
+	 */
+	StateTracker newDelta() {
+		return new StateTracker(sideSize, keys);
+	}
+
+	/**
+	 * Adds the changes collected by the {@code delta} tracker to this tracker.
+	 *
+	 * @param delta A tracker returned by {@link #newDelta()}
+	 */
+	void merge(StateTracker delta) {
+		for (int i = 0; i < sideHashes.length; ++i) {
+			sideHashes[i] ^= delta.sideHashes[i];
+		}
+		for (int i = 0; i < colorCounts.length; ++i) {
+			if (delta.colorCounts[i] != 0) {
+				count(i / COLORS, i % COLORS, delta.colorCounts[i]);
+			}
+		}
+		changedSides |= delta.changedSides;
+	}
+
+	private static long[] createKeys(int sideSize) {
+		SplittableRandom random = new SplittableRandom(SEED + sideSize);
+		long[] keys = new long[sideSize * sideSize * COLORS];
+		for (int i = 0; i < keys.length; ++i) {
+			keys[i] = random.nextLong();
+		}
+		return keys;
+	}
+
+	/**
+	 * Recomputes the summary of the stored side with index {@code side} from its stickers.
+	 *
+	 * @param side The index of the side in the sticker array
+	 */
+	void recomputeSide(int side) {
+		for (int orientation = 0; orientation < ORIENTATIONS; ++orientation) {
+			sideHashes[side * ORIENTATIONS + orientation] = 0;
+		}
+		for (int color = 0; color < COLORS; ++color) {
+			if (colorCounts[side * COLORS + color] == sideArea) {
+				solvedSideCount--;
+			}
+			colorCounts[side * COLORS + color] = 0;
+		}
+
+		int offset = side * sideArea;
+		for (int index = offset; index < offset + sideArea; ++index) {
+			toggle(index, stickers[index]);
+			count(side, stickers[index], 1);
+		}
+		changedSides |= 1 << side;
+	}
+
+	/**
+	 * Updates the summary after the sticker stored at {@code index} changed from {@code oldColor} to {@code newColor}.
+	 *
+	 * @param index The index of the sticker in the sticker array
+	 * @param oldColor The ordinal of the old color of the sticker
+	 * @param newColor The ordinal of the new color of the sticker
+	 */
+	void update(int index, int oldColor, int newColor) {
+		if (oldColor != newColor) {
+			toggle(index, oldColor);
+			toggle(index, newColor);
+			int side = index / sideArea;
+			count(side, oldColor, -1);
+			count(side, newColor, 1);
+			changedSides |= 1 << side;
+		}
+	}
+
+	private void count(int side, int color, int delta) {
+		int i = side * COLORS + color;
+		if (colorCounts[i] == sideArea) {
+			solvedSideCount--;
+		}
+		colorCounts[i] += delta;
+		if (colorCounts[i] == sideArea) {
+			solvedSideCount++;
+		}
+	}
+
+	private void toggle(int index, int color) {
+
+		int side = index / sideArea;
+		int local = index - side * sideArea;
+		int i = local / sideSize;
+		int j = local - i * sideSize;
+		int last = sideSize - 1;
+		int base = side * ORIENTATIONS;
+
+		//The position of the sticker on the side for each orientation, see Side#physicalIndex(int, int)
+		sideHashes[base] ^= keys[(i * sideSize + j) * COLORS + color];
+		sideHashes[base + 1] ^= keys[(j * sideSize + last - i) * COLORS + color];
+		sideHashes[base + 2] ^= keys[((last - i) * sideSize + last - j) * COLORS + color];
+		sideHashes[base + 3] ^= keys[((last - j) * sideSize + i) * COLORS + color];
+	}
+
+	/**
+	 * Returns the hash of the cube whose sides are arranged according to {@code layout} and {@code orientations}.
+	 *
+	 * @param layout The index of the stored side at each position of the cube
+	 * @param orientations The orientation of each stored side
+	 * @return The hash of the state of the cube
+	 */
+	long getHash(byte[] layout, byte[] orientations) {
+		long hash = 0;
+		for (int position = 0; position < Cube.NUMBER_OF_SIDES; ++position) {
+			int side = layout[position];
+			hash ^= Long.rotateLeft(sideHashes[side * ORIENTATIONS + orientations[side]], position * SIDE_ROTATION_BITS);
+		}
+		return hash;
+	}
+
+	/**
+	 * Returns the number of stickers on the stored side with index {@code side} that have the most frequent color of the side.
+	 *
+	 * @param side The index of the side in the sticker array
+	 * @return The number of stickers with the most frequent color
+	 */
+	int getMatchCount(int side) {
+		int max = 0;
+		for (int color = 0; color < COLORS; ++color) {
+			max = Math.max(max, colorCounts[side * COLORS + color]);
+		}
+		return max;
+	}
+
+	/**
+	 * Returns the stored sides that had any of their stickers changed since the last call of this method, then forgets them.
+	 *
+	 * @return A bit mask where the bit {@code 1 << side} is set if the side with index {@code side} was changed
+	 */
+	int takeChangedSides() {
+		int changed = changedSides;
+		changedSides = 0;
+		return changed;
+	}
+
+	/**
+	 * Returns whether each side of the cube has only one color.
+	 *
+	 * @return {@code true} if the cube is solved, {@code false} otherwise
+	 */
+	boolean isSolved() {
+		return solvedSideCount == Cube.NUMBER_OF_SIDES;
+	}
+}
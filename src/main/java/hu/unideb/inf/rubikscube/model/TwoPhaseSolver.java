@@ -0,0 +1,295 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class solves 3x3 cubes with Kociemba's two-phase algorithm.
+ *
+ * <p>
+ * The first phase brings the cube into the group where the corners and the edges are not twisted or flipped, and the middle layer edges {@code FR, FL, BL, BR} are in the middle layer. This group is closed under the rotations {@code U, D} and the half turns of the other sides, so the second phase solves the cube with only these rotations. Both phases are iterative deepening searches, which skip the rotations that lead too far from the goal of the phase according to the pruning tables, see {@link TwoPhaseTables}.</p>
+ * <p>
+ * The tables are computed the first time a solver is used with a table file, which takes a few seconds, and they are cached in the file, so later they are only read. By default the file is in the {@code rubikscubeData} directory of the home directory of the user.</p>
+ * <p>
+ * For example, a cube can be solved like this:</p>
+ * <pre>
+ *	Rotation[] solution = new TwoPhaseSolver().solve(cube);
+ *	cube.rotate(solution);
+ * </pre>
+ *
+ * @author kinga
+ */
+public class TwoPhaseSolver {
+
+	/**
+	 * The default number of rotations a solution may have at most, is {@value}.
+	 */
+	public static final int DEFAULT_MAX_LENGTH = 21;
+
+	private static final Path DEFAULT_TABLE_FILE = Paths.get(System.getProperty("user.home"), "rubikscubeData", "twoPhaseTables.bin");
+	private static final int CUBE_SIZE = 3;
+	private static final int DIRECTIONS = 3;
+	private static final int AXES = 3;
+
+	private static Logger logger = LoggerFactory.getLogger(TwoPhaseSolver.class);
+
+	private final Path tableFile;
+
+	/**
+	 * Creates a solver that caches its tables in the default file.
+	 */
+	public TwoPhaseSolver() {
+		this(DEFAULT_TABLE_FILE);
+	}
+
+	/**
+	 * Creates a solver that caches its tables in the specified {@code tableFile}.
+	 *
+	 * @param tableFile The file the tables are read from, or written to if it doesn't exist
+	 */
+	public TwoPhaseSolver(Path tableFile) {
+		this.tableFile = tableFile;
+		logger.info("Two-phase solver created with table file {}", tableFile);
+	}
+
+	/**
+	 * Returns the tables of the table file, which are shared by the solvers through {@link TwoPhaseTables#forFile(Path)}, so they are safely published to every thread.
+	 */
+	private TwoPhaseTables getTables() {
+		return TwoPhaseTables.forFile(tableFile);
+	}
+
+	/**
+	 * Returns a sequence of at most {@link #DEFAULT_MAX_LENGTH} rotations that solves the {@code cube}.
+	 *
+	 * @param cube A 3x3 cube
+	 * @return The rotations solving the {@code cube}, or {@code null} if the {@code cube} can't be solved
+	 * @see #solve(Cube, int)
+	 */
+	public Rotation[] solve(Cube cube) {
+		return solve(cube, DEFAULT_MAX_LENGTH);
+	}
+
+	/**
+	 * Returns a sequence of at most {@code maxLength} rotations that solves the {@code cube}.
+	 *
+	 * <p>
+	 * The colors of the sides are given by the centers of the {@code cube}, so a cube rotated as a whole is solved as well, and the returned rotations can be applied to it directly. Every state of the 3x3 cube can be solved with 20 rotations, but the search takes much longer for a {@code maxLength} below {@link #DEFAULT_MAX_LENGTH}.</p>
+	 *
+	 * @param cube A 3x3 cube
+	 * @param maxLength The greatest number of rotations of the solution
+	 * @return The rotations solving the {@code cube}, or {@code null} if the {@code cube} is not a 3x3 cube, its stickers can't be reached with rotations, or there's no solution with {@code maxLength} rotations
+	 */
+	public Rotation[] solve(Cube cube, int maxLength) {
+
+		if (cube.getCubeSize() != CUBE_SIZE) {
+			logger.error("Only cubes with cubesize {} can be solved, not {}", CUBE_SIZE, cube.getCubeSize());
+			return null;
+		}
+		CubieState state = readState(cube);
+		if (state == null || !state.isReachable(CUBE_SIZE)) {
+			logger.error("The cube is not in a state that can be solved");
+			return null;
+		}
+		return solve(state, maxLength);
+	}
+
+	/**
+	 * Returns the state of the pieces of the {@code cube}, with the colors of the sides given by its centers.
+	 */
+	private static CubieState readState(Cube cube) {
+		int sideArea = CUBE_SIZE * CUBE_SIZE;
+		byte[] stickers = new byte[Cube.NUMBER_OF_SIDES * sideArea];
+		byte[] sideColors = new byte[Cube.NUMBER_OF_SIDES];
+		for (int side = 0; side < Cube.NUMBER_OF_SIDES; ++side) {
+			Side cubeSide = cube.getSideAt(Cube.SIDE_POSITIONS[side]);
+			for (int i = 0; i < CUBE_SIZE; ++i) {
+				for (int j = 0; j < CUBE_SIZE; ++j) {
+					stickers[side * sideArea + i * CUBE_SIZE + j] = (byte) cubeSide.getColorAt(i, j).ordinal();
+				}
+			}
+			sideColors[side] = stickers[side * sideArea + sideArea / 2];
+		}
+		return CubieState.fromStickers(stickers, CUBE_SIZE, sideColors);
+	}
+
+	/**
+	 * Returns a sequence of at most {@code maxLength} rotations that solves the {@code state}.
+	 *
+	 * @param state A reachable state of the 3x3 cube
+	 * @param maxLength The greatest number of rotations of the solution
+	 * @return The rotations solving the {@code state}, or {@code null} if there's no solution with {@code maxLength} rotations
+	 */
+	Rotation[] solve(CubieState state, int maxLength) {
+
+		Search search = new Search(getTables(), state, maxLength);
+		int[] moves = search.run();
+		if (moves == null) {
+			logger.error("No solution found with {} rotations", maxLength);
+			return null;
+		}
+
+		Rotation[] solution = new Rotation[moves.length];
+		for (int i = 0; i < moves.length; ++i) {
+			solution[i] = Rotation.of(1, moves[i]);
+		}
+		logger.info("Solved cube with {} rotations", solution.length);
+		return solution;
+	}
+
+	/**
+	 * The state of one search, so a solver can be used by several threads at the same time.
+	 */
+	private static final class Search {
+
+		private final TwoPhaseTables tables;
+		private final CubieState state;
+		private final int maxLength;
+		private final int[] moves;
+		private int phase1Length;
+		private int totalLength;
+
+		Search(TwoPhaseTables tables, CubieState state, int maxLength) {
+			this.tables = tables;
+			this.state = state;
+			this.maxLength = maxLength;
+			this.moves = new int[Math.max(maxLength, 0)];
+		}
+
+		/**
+		 * Returns the type indices of the rotations of the solution, or {@code null} if there's none.
+		 */
+		int[] run() {
+
+			int twist = TwoPhaseTables.getTwist(state);
+			int flip = TwoPhaseTables.getFlip(state);
+			int slice = TwoPhaseTables.getSlice(state);
+			for (phase1Length = 0; phase1Length <= maxLength; ++phase1Length) {
+				if (searchPhase1(twist, flip, slice, 0, -1)) {
+					int[] solution = new int[totalLength];
+					System.arraycopy(moves, 0, solution, 0, totalLength);
+					return solution;
+				}
+			}
+			return null;
+		}
+
+		private int getPhase1Distance(int twist, int flip, int slice) {
+			return Math.max(tables.sliceTwistDistances[slice * TwoPhaseTables.TWISTS + twist],
+					tables.sliceFlipDistances[slice * TwoPhaseTables.FLIPS + flip]);
+		}
+
+		private boolean searchPhase1(int twist, int flip, int slice, int depth, int lastSide) {
+
+			if (depth == phase1Length) {
+				//A first phase ending with a rotation of the second phase was found one rotation shorter already
+				return getPhase1Distance(twist, flip, slice) == 0
+						&& (depth == 0 || !isPhase2Move(moves[depth - 1])) && startPhase2();
+			}
+
+			for (int move = 0; move < TwoPhaseTables.MOVES; ++move) {
+				int side = move / DIRECTIONS;
+				if (isRedundant(side, lastSide)) {
+					continue;
+				}
+				int nextTwist = tables.twistMoves[twist * TwoPhaseTables.MOVES + move];
+				int nextFlip = tables.flipMoves[flip * TwoPhaseTables.MOVES + move];
+				int nextSlice = tables.sliceMoves[slice * TwoPhaseTables.MOVES + move];
+				if (getPhase1Distance(nextTwist, nextFlip, nextSlice) < phase1Length - depth) {
+					moves[depth] = move;
+					if (searchPhase1(nextTwist, nextFlip, nextSlice, depth + 1, side)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Returns whether rotating the {@code side} after the {@code lastSide} can be left out, because the same side is rotated twice, or two opposite sides are rotated in both orders.
+		 */
+		private static boolean isRedundant(int side, int lastSide) {
+			return side == lastSide || side + AXES == lastSide;
+		}
+
+		private static boolean isPhase2Move(int move) {
+			for (int phase2Move : TwoPhaseTables.PHASE2_MOVES) {
+				if (move == phase2Move) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Searches the second phase from the state after the rotations of the first phase.
+		 */
+		private boolean startPhase2() {
+
+			CubieState phase2State = state;
+			for (int i = 0; i < phase1Length; ++i) {
+				phase2State = phase2State.then(CubieState.forRotation(moves[i]));
+			}
+			int cornerPermutation = TwoPhaseTables.getCornerPermutation(phase2State);
+			int edgePermutation = TwoPhaseTables.getEdgePermutation(phase2State);
+			int slicePermutation = TwoPhaseTables.getSlicePermutation(phase2State);
+			int lastSide = phase1Length > 0 ? moves[phase1Length - 1] / DIRECTIONS : -1;
+
+			int estimate = getPhase2Distance(cornerPermutation, edgePermutation, slicePermutation);
+			for (totalLength = phase1Length + estimate; totalLength <= maxLength; ++totalLength) {
+				if (searchPhase2(cornerPermutation, edgePermutation, slicePermutation, phase1Length, lastSide)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private int getPhase2Distance(int cornerPermutation, int edgePermutation, int slicePermutation) {
+			return Math.max(tables.cornerDistances[slicePermutation * TwoPhaseTables.CORNER_PERMUTATIONS + cornerPermutation],
+					tables.edgeDistances[slicePermutation * TwoPhaseTables.EDGE_PERMUTATIONS + edgePermutation]);
+		}
+
+		private boolean searchPhase2(int cornerPermutation, int edgePermutation, int slicePermutation, int depth, int lastSide) {
+
+			if (depth == totalLength) {
+				return getPhase2Distance(cornerPermutation, edgePermutation, slicePermutation) == 0;
+			}
+
+			int phase2Moves = TwoPhaseTables.PHASE2_MOVES.length;
+			for (int i = 0; i < phase2Moves; ++i) {
+				int move = TwoPhaseTables.PHASE2_MOVES[i];
+				int side = move / DIRECTIONS;
+				if (isRedundant(side, lastSide)) {
+					continue;
+				}
+				int nextCorners = tables.cornerPermutationMoves[cornerPermutation * phase2Moves + i];
+				int nextEdges = tables.edgePermutationMoves[edgePermutation * phase2Moves + i];
+				int nextSlice = tables.slicePermutationMoves[slicePermutation * phase2Moves + i];
+				if (getPhase2Distance(nextCorners, nextEdges, nextSlice) < totalLength - depth) {
+					moves[depth] = move;
+					if (searchPhase2(nextCorners, nextEdges, nextSlice, depth + 1, side)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,424 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class holds the coordinates, the move tables and the pruning tables of the two-phase algorithm for the 3x3 cube.
+ *
+ * <p>
+ * In the first phase a state is described by the twist of the corners, the flip of the edges and the positions of the four middle layer edges {@code FR, FL, BL, BR}. In the second phase, where only {@code U, D} and half turns of the other sides are allowed, it's described by the permutation of the corners, the permutation of the other eight edges and the permutation of the middle layer edges. Each coordinate is a number, and a move table tells for each coordinate and rotation the coordinate after the rotation. A pruning table tells for a pair of coordinates how many rotations are needed at least to solve them.</p>
+ * <p>
+ * Computing the tables takes a few seconds, so they are written to a file, and read from it the next time. There is only one instance for each file, which can be obtained with {@link #forFile(Path)}.</p>
+ *
+ * @see TwoPhaseSolver
+ * @author kinga
+ */
+final class TwoPhaseTables {
+
+	static final int MOVES = 18;
+	static final int TWISTS = 2187;
+	static final int FLIPS = 2048;
+	static final int SLICES = 495;
+	static final int CORNER_PERMUTATIONS = 40320;
+	static final int EDGE_PERMUTATIONS = 40320;
+	static final int SLICE_PERMUTATIONS = 24;
+
+	//The rotations U, U', U2, D, D', D2, R2, L2, F2, B2 allowed in the second phase, by their type indices
+	static final int[] PHASE2_MOVES = {3, 4, 5, 12, 13, 14, 2, 11, 8, 17};
+
+	//The slice coordinate of the solved state, where the middle layer edges are at the last four positions
+	static final int SOLVED_SLICE = SLICES - 1;
+
+	private static final int FIRST_SLICE_EDGE = 8;
+	private static final int SLICE_EDGE_COUNT = 4;
+	private static final int FILE_VERSION = 2;
+
+	private static final Map<Path, TwoPhaseTables> TABLES = new ConcurrentHashMap<>();
+
+	final char[] twistMoves = new char[TWISTS * MOVES];
+	final char[] flipMoves = new char[FLIPS * MOVES];
+	final char[] sliceMoves = new char[SLICES * MOVES];
+	final char[] cornerPermutationMoves = new char[CORNER_PERMUTATIONS * PHASE2_MOVES.length];
+	final char[] edgePermutationMoves = new char[EDGE_PERMUTATIONS * PHASE2_MOVES.length];
+	final char[] slicePermutationMoves = new char[SLICE_PERMUTATIONS * PHASE2_MOVES.length];
+
+	final byte[] sliceTwistDistances = new byte[SLICES * TWISTS];
+	final byte[] sliceFlipDistances = new byte[SLICES * FLIPS];
+	final byte[] cornerDistances = new byte[SLICE_PERMUTATIONS * CORNER_PERMUTATIONS];
+	final byte[] edgeDistances = new byte[SLICE_PERMUTATIONS * EDGE_PERMUTATIONS];
+
+	private static Logger logger = LoggerFactory.getLogger(TwoPhaseTables.class);
+
+	private TwoPhaseTables() {
+	}
+
+	/**
+	 * Returns the tables stored in the specified {@code file}.
+	 *
+	 * <p>
+	 * If the file doesn't exist, it can't be read or it's damaged, the tables are computed and written to the file. If the file can't be written either, the computed tables are used anyway.</p>
+	 *
+	 * @param file The file the tables are cached in
+	 * @return The tables of the two-phase algorithm
+	 */
+	static TwoPhaseTables forFile(Path file) {
+		return TABLES.computeIfAbsent(file.toAbsolutePath(), TwoPhaseTables::load);
+	}
+
+	/**
+	 * Returns the tables read from the specified {@code file}, or computed and written to it if they can't be read, without looking at the tables already obtained with {@link #forFile(Path)}.
+	 *
+	 * @param file The file the tables are cached in
+	 * @return The tables of the two-phase algorithm
+	 */
+	static TwoPhaseTables load(Path file) {
+
+		TwoPhaseTables tables = read(file);
+		if (tables == null) {
+			tables = new TwoPhaseTables();
+			tables.compute();
+			tables.save(file);
+		}
+		return tables;
+	}
+
+	/**
+	 * Returns the tables read from the specified {@code file}.
+	 *
+	 * <p>
+	 * The file ends with a checksum of its contents, so a damaged file is not used.</p>
+	 *
+	 * @param file The file the tables are cached in
+	 * @return The tables read from the {@code file}, or {@code null} if the file doesn't exist, can't be read, or its contents don't match its checksum
+	 */
+	static TwoPhaseTables read(Path file) {
+
+		if (!Files.isReadable(file)) {
+			return null;
+		}
+		TwoPhaseTables tables = new TwoPhaseTables();
+		int fileSize = tables.getFileSize();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() != fileSize) {
+				logger.error("Invalid size {} of two-phase tables in {}", channel.size(), file);
+				return null;
+			}
+			ByteBuffer buffer = ByteBuffer.allocate(fileSize);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+			}
+			buffer.flip();
+			if (buffer.remaining() != fileSize || buffer.getInt() != FILE_VERSION
+					|| buffer.getLong(fileSize - Long.BYTES) != getChecksum(buffer)) {
+				logger.error("Invalid two-phase tables in {}", file);
+				return null;
+			}
+			for (char[] moves : tables.getMoveTables()) {
+				buffer.asCharBuffer().get(moves);
+				buffer.position(buffer.position() + moves.length * Character.BYTES);
+			}
+			for (byte[] distances : tables.getPruningTables()) {
+				buffer.get(distances);
+			}
+		} catch (IOException exception) {
+			logger.error("Error at reading from file {}", file);
+			logger.error("{}", exception.getMessage());
+			return null;
+		}
+		logger.info("Two-phase tables read from {}", file);
+		return tables;
+	}
+
+	/**
+	 * Returns the checksum of the contents of the {@code buffer} of a file before the checksum at its end.
+	 */
+	private static long getChecksum(ByteBuffer buffer) {
+		CRC32 checksum = new CRC32();
+		checksum.update(buffer.array(), buffer.arrayOffset(), buffer.limit() - Long.BYTES);
+		return checksum.getValue();
+	}
+
+	/**
+	 * Writes the tables to a temporary file first, so a reader never sees a partially written file.
+	 */
+	private void save(Path file) {
+
+		ByteBuffer buffer = ByteBuffer.allocate(getFileSize());
+		buffer.putInt(FILE_VERSION);
+		for (char[] moves : getMoveTables()) {
+			buffer.asCharBuffer().put(moves);
+			buffer.position(buffer.position() + moves.length * Character.BYTES);
+		}
+		for (byte[] distances : getPruningTables()) {
+			buffer.put(distances);
+		}
+		buffer.putLong(0);
+		buffer.flip();
+		buffer.putLong(buffer.limit() - Long.BYTES, getChecksum(buffer));
+
+		try {
+			Path directory = file.toAbsolutePath().getParent();
+			Files.createDirectories(directory);
+			Path tempFile = Files.createTempFile(directory, "twoPhaseTables", ".tmp");
+			try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+			logger.info("Two-phase tables saved to {}", file);
+		} catch (IOException exception) {
+			logger.error("Error at saving file {}", file);
+			logger.error("{}", exception.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the number of bytes of the file of the tables, which starts with the version of its format and ends with the checksum.
+	 */
+	private int getFileSize() {
+		int size = Integer.BYTES + Long.BYTES;
+		for (char[] moves : getMoveTables()) {
+			size += moves.length * Character.BYTES;
+		}
+		for (byte[] distances : getPruningTables()) {
+			size += distances.length;
+		}
+		return size;
+	}
+
+	private char[][] getMoveTables() {
+		return new char[][]{twistMoves, flipMoves, sliceMoves, cornerPermutationMoves, edgePermutationMoves, slicePermutationMoves};
+	}
+
+	private byte[][] getPruningTables() {
+		return new byte[][]{sliceTwistDistances, sliceFlipDistances, cornerDistances, edgeDistances};
+	}
+
+	private void compute() {
+
+		CubieState state = new CubieState();
+		for (int move = 0; move < MOVES; ++move) {
+			CubieState rotation = CubieState.forRotation(move);
+			for (int i = 0; i < TWISTS; ++i) {
+				setTwist(state, i);
+				twistMoves[i * MOVES + move] = (char) getTwist(state.then(rotation));
+			}
+			for (int i = 0; i < FLIPS; ++i) {
+				setFlip(state, i);
+				flipMoves[i * MOVES + move] = (char) getFlip(state.then(rotation));
+			}
+			for (int i = 0; i < SLICES; ++i) {
+				setSlice(state, i);
+				sliceMoves[i * MOVES + move] = (char) getSlice(state.then(rotation));
+			}
+		}
+
+		int phase2Moves = PHASE2_MOVES.length;
+		state = new CubieState();
+		for (int move = 0; move < phase2Moves; ++move) {
+			CubieState rotation = CubieState.forRotation(PHASE2_MOVES[move]);
+			for (int i = 0; i < CORNER_PERMUTATIONS; ++i) {
+				setPermutation(state.cornerPermutation, 0, CubieState.CORNERS, i);
+				cornerPermutationMoves[i * phase2Moves + move] = (char) getCornerPermutation(state.then(rotation));
+			}
+			for (int i = 0; i < EDGE_PERMUTATIONS; ++i) {
+				setPermutation(state.edgePermutation, 0, FIRST_SLICE_EDGE, i);
+				edgePermutationMoves[i * phase2Moves + move] = (char) getEdgePermutation(state.then(rotation));
+			}
+			for (int i = 0; i < SLICE_PERMUTATIONS; ++i) {
+				setPermutation(state.edgePermutation, FIRST_SLICE_EDGE, SLICE_EDGE_COUNT, i);
+				slicePermutationMoves[i * phase2Moves + move] = (char) getSlicePermutation(state.then(rotation));
+			}
+		}
+
+		fillDistances(sliceTwistDistances, SOLVED_SLICE * TWISTS, sliceMoves, SLICES, twistMoves, TWISTS, MOVES);
+		fillDistances(sliceFlipDistances, SOLVED_SLICE * FLIPS, sliceMoves, SLICES, flipMoves, FLIPS, MOVES);
+		fillDistances(cornerDistances, 0, slicePermutationMoves, SLICE_PERMUTATIONS,
+				cornerPermutationMoves, CORNER_PERMUTATIONS, phase2Moves);
+		fillDistances(edgeDistances, 0, slicePermutationMoves, SLICE_PERMUTATIONS,
+				edgePermutationMoves, EDGE_PERMUTATIONS, phase2Moves);
+		logger.info("Two-phase tables computed");
+	}
+
+	/**
+	 * Fills the {@code distances} of the pairs of two coordinates from the {@code solved} pair with a breadth-first search.
+	 */
+	private static void fillDistances(byte[] distances, int solved, char[] firstMoves, int firstCount,
+			char[] secondMoves, int secondCount, int moves) {
+
+		Arrays.fill(distances, (byte) -1);
+		int[] queue = new int[firstCount * secondCount];
+		int head = 0;
+		int tail = 0;
+		distances[solved] = 0;
+		queue[tail++] = solved;
+		while (head < tail) {
+			int current = queue[head++];
+			int first = current / secondCount;
+			int second = current % secondCount;
+			for (int move = 0; move < moves; ++move) {
+				int next = firstMoves[first * moves + move] * secondCount + secondMoves[second * moves + move];
+				if (distances[next] < 0) {
+					distances[next] = (byte) (distances[current] + 1);
+					queue[tail++] = next;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the twists of the first 7 corners as a number in base 3, the twist of the last one follows from them.
+	 */
+	static int getTwist(CubieState state) {
+		int twist = 0;
+		for (int i = 0; i < CubieState.CORNERS - 1; ++i) {
+			twist = twist * CubieState.TWISTS + state.cornerTwists[i];
+		}
+		return twist;
+	}
+
+	private static void setTwist(CubieState state, int twist) {
+		int sum = 0;
+		for (int i = CubieState.CORNERS - 2; i >= 0; --i) {
+			state.cornerTwists[i] = (byte) (twist % CubieState.TWISTS);
+			sum += state.cornerTwists[i];
+			twist /= CubieState.TWISTS;
+		}
+		state.cornerTwists[CubieState.CORNERS - 1] = (byte) ((CubieState.TWISTS - sum % CubieState.TWISTS) % CubieState.TWISTS);
+	}
+
+	/**
+	 * Returns the flips of the first 11 edges as a number in base 2, the flip of the last one follows from them.
+	 */
+	static int getFlip(CubieState state) {
+		int flip = 0;
+		for (int i = 0; i < CubieState.EDGES - 1; ++i) {
+			flip = flip * CubieState.FLIPS + state.edgeFlips[i];
+		}
+		return flip;
+	}
+
+	private static void setFlip(CubieState state, int flip) {
+		int sum = 0;
+		for (int i = CubieState.EDGES - 2; i >= 0; --i) {
+			state.edgeFlips[i] = (byte) (flip % CubieState.FLIPS);
+			sum += state.edgeFlips[i];
+			flip /= CubieState.FLIPS;
+		}
+		state.edgeFlips[CubieState.EDGES - 1] = (byte) (sum % CubieState.FLIPS);
+	}
+
+	/**
+	 * Returns the rank of the set of the positions of the middle layer edges in the combinatorial number system.
+	 */
+	static int getSlice(CubieState state) {
+		int slice = 0;
+		int found = 0;
+		for (int i = 0; i < CubieState.EDGES; ++i) {
+			if (state.edgePermutation[i] >= FIRST_SLICE_EDGE) {
+				slice += binomial(i, ++found);
+			}
+		}
+		return slice;
+	}
+
+	private static void setSlice(CubieState state, int slice) {
+		int sliceEdge = FIRST_SLICE_EDGE + SLICE_EDGE_COUNT - 1;
+		int otherEdge = FIRST_SLICE_EDGE - 1;
+		int remaining = SLICE_EDGE_COUNT;
+		for (int i = CubieState.EDGES - 1; i >= 0; --i) {
+			if (remaining > 0 && binomial(i, remaining) <= slice) {
+				slice -= binomial(i, remaining--);
+				state.edgePermutation[i] = (byte) sliceEdge--;
+			} else {
+				state.edgePermutation[i] = (byte) otherEdge--;
+			}
+		}
+	}
+
+	private static int binomial(int n, int k) {
+		if (k > n) {
+			return 0;
+		}
+		int result = 1;
+		for (int i = 1; i <= k; ++i) {
+			result = result * (n - k + i) / i;
+		}
+		return result;
+	}
+
+	static int getCornerPermutation(CubieState state) {
+		return getPermutation(state.cornerPermutation, 0, CubieState.CORNERS);
+	}
+
+	static int getEdgePermutation(CubieState state) {
+		return getPermutation(state.edgePermutation, 0, FIRST_SLICE_EDGE);
+	}
+
+	static int getSlicePermutation(CubieState state) {
+		return getPermutation(state.edgePermutation, FIRST_SLICE_EDGE, SLICE_EDGE_COUNT);
+	}
+
+	/**
+	 * Returns the rank in lexicographic order of the permutation of the {@code length} pieces starting at {@code offset}, which must be the pieces with the same numbers.
+	 */
+	private static int getPermutation(byte[] pieces, int offset, int length) {
+		int rank = 0;
+		for (int i = 0; i < length; ++i) {
+			int smaller = 0;
+			for (int j = i + 1; j < length; ++j) {
+				if (pieces[offset + j] < pieces[offset + i]) {
+					++smaller;
+				}
+			}
+			rank = rank * (length - i) + smaller;
+		}
+		return rank;
+	}
+
+	private static void setPermutation(byte[] pieces, int offset, int length, int rank) {
+		int[] smaller = new int[length];
+		for (int i = length - 1; i >= 0; --i) {
+			smaller[i] = rank % (length - i);
+			rank /= length - i;
+		}
+		boolean[] used = new boolean[length];
+		for (int i = 0; i < length; ++i) {
+			int piece = 0;
+			for (int count = smaller[i]; used[piece] || count > 0; ++piece) {
+				if (!used[piece]) {
+					--count;
+				}
+			}
+			used[piece] = true;
+			pieces[offset + i] = (byte) (offset + piece);
+		}
+	}
+}
@@ -17,6 +17,6 @@
  * This component is for representing a Rubik's cube.
  *
  * In this package all the components of a Rubik's cube can be found. For the representation of the cube
- * itself the {@link Cube} class is responsible, which has {@link Side} objects where the color values are stored as {@link StickerColor} enums. To start playing the {@link Scrambler} class provides functionality to scramble the cube, and with the {@link Rotation} class the user's rotations on the cube are represented.
+ * itself the {@link Cube} class is responsible, which has {@link Side} objects where the color values are stored as {@link StickerColor} enums. To start playing the {@link Scrambler} class provides functionality to scramble the cube, and with the {@link Rotation} class the user's rotations on the cube are represented. The {@link MoveTable} class compiles the rotations into {@link Permutation} objects of the stickers, which are applied to the cube. Sequences of rotations are shortened with the {@link SequenceOptimizer} class before they are applied, and the composed permutations of algorithms applied over and over are kept in the {@link PermutationCache} class. Long series of rotations can be replayed from any position with the {@link ReplayTimeline} class, and the rotations of a sequence that move different stickers are applied at the same time by the {@link RotationScheduler} class. Very large cubes can be stored with 3 bits for each sticker in the {@link PackedCube} class. Any number of reproducible scrambles can be generated with the {@link ScrambleGenerator} class, and cubes can be scrambled into uniformly random states with the {@link RandomStateScrambler} class. A 3x3 cube is solved in about 20 rotations by the {@link TwoPhaseSolver} class.
  */
 package hu.unideb.inf.rubikscube.model;
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author kinga
+ */
+public class CubeSnapshotTest {
+
+	public CubeSnapshotTest() {
+	}
+
+	@BeforeClass
+	public static void setUpClass() {
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+	}
+
+	@Before
+	public void setUp() {
+	}
+
+	@After
+	public void tearDown() {
+	}
+
+	/**
+	 * Test of toCube method, of class CubeSnapshot.
+	 */
+	@Test
+	public void testToCube() {
+		Cube cube = new Cube(5);
+		cube.scramble(new Scrambler(5));
+		cube.rotate(Rotation.parse("z'"));
+		CubeSnapshot snapshot = cube.snapshot();
+		String expected = cube.toString();
+
+		cube.rotate(Rotation.parse("2R"));
+		assertEquals(expected, snapshot.toCube().toString());
+		assertEquals(snapshot.toCube(), snapshot.toCube());
+		assertNotEquals(cube, snapshot.toCube());
+
+		cube.rotate(Rotation.parse("2R'"));
+		assertEquals(cube.getStateHash(), snapshot.getStateHash());
+		assertEquals(cube, snapshot.toCube());
+		assertEquals(5, snapshot.getCubeSize());
+	}
+
+	/**
+	 * Test of sharing the unchanged sides between snapshots, of class CubeSnapshot.
+	 */
+	@Test
+	public void testSharedSides() {
+		Cube cube = new Cube(4);
+		CubeSnapshot first = cube.snapshot();
+		cube.rotate(Rotation.parse("2R"));
+		cube.rotate(Rotation.parse("R"));
+		CubeSnapshot second = cube.snapshot();
+		//The sides are stored in the order U, F, D, B, R, L
+		for (int side = 0; side < 4; ++side) {
+			assertFalse(second.isSharedWith(first, side));
+		}
+		assertTrue(second.isSharedWith(first, 4));
+		assertTrue(second.isSharedWith(first, 5));
+
+		cube.rotate(Rotation.parse("y"));
+		CubeSnapshot third = cube.snapshot();
+		for (int side = 0; side < Cube.NUMBER_OF_SIDES; ++side) {
+			assertTrue(third.isSharedWith(second, side));
+		}
+		assertNotEquals(second.getStateHash(), third.getStateHash());
+
+		cube.restore(first);
+		assertTrue(cube.isSolved());
+		assertTrue(first.isSolved());
+		assertFalse(second.isSolved());
+		assertTrue(cube.snapshot().isSharedWith(first, 0));
+	}
+
+	/**
+	 * Test of restore method with a snapshot of a cube with a different size, of class Cube.
+	 */
+	@Test
+	public void testRestoreDifferentSize() {
+		Cube cube = new Cube(3);
+		cube.rotate(Rotation.parse("F"));
+		String expected = cube.toString();
+		cube.restore(new Cube(4).snapshot());
+		assertEquals(expected, cube.toString());
+	}
+
+}
@@ -15,7 +15,9 @@
  */
 package hu.unideb.inf.rubikscube.model;
 
+import com.google.gson.Gson;
 import java.util.ArrayList;
+import java.util.Random;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -172,6 +174,9 @@ public class CubeTest {
 				fail("Not returned the same side");
 			}
 		}
+		assertNull(cube.getSideAt('M'));
+		assertNull(cube.getSideAt('\0'));
+		assertNull(cube.getSideAt('\u0170'));
 	}
 
 	/**
@@ -196,4 +201,490 @@ public class CubeTest {
 		}
 	}
 
+	/**
+	 * Test of serializing and deserializing the cube with Gson, as saving and loading the game does.
+	 */
+	@Test
+	public void testGsonRoundTrip() {
+		Cube cube = new Cube(4);
+		cube.rotate(new Rotation(1, "R"));
+		cube.rotate(new Rotation(2, "U'"));
+		cube.rotate(Rotation.parse("x"));
+		Gson gson = new Gson();
+		Cube loadedCube = gson.fromJson(gson.toJson(cube), Cube.class);
+		assertEquals(cube.getCubeSize(), loadedCube.getCubeSize());
+		assertEquals(cube.toString(), loadedCube.toString());
+
+		loadedCube.rotate(Rotation.parse("x'"));
+		loadedCube.rotate(new Rotation(2, "U"));
+		loadedCube.rotate(new Rotation(1, "R'"));
+		assertEquals(new Cube(4).toString(), loadedCube.toString());
+	}
+
+	/**
+	 * Test of loading a damaged cube saved with Gson.
+	 */
+	@Test
+	public void testGsonInvalidState() {
+		Gson gson = new Gson();
+		Cube cube = new Cube(2);
+		cube.rotate(new Rotation(1, "R"));
+		String json = gson.toJson(cube);
+		assertEquals(cube, gson.fromJson(json, Cube.class));
+
+		String[] damagedJsons = {
+			json.replaceFirst("\"stickers\":\\[[0-9,]*\\]", "\"stickers\":[0,1,2]"),
+			json.replaceFirst("\"stickers\":\\[[0-9]*", "\"stickers\":[9"),
+			json.replaceFirst("\"stickers\":\\[[0-9]*", "\"stickers\":[-1"),
+			json.replaceFirst("\"orientations\":\\[[0-9,]*\\]", "\"orientations\":[0,0,0]"),
+			json.replaceFirst("\"orientations\":\\[[0-9]*", "\"orientations\":[4"),
+			json.replaceFirst("\"layout\":\\[[0-9,]*\\]", "\"layout\":[0,0,2,3,4,5]"),
+			json.replaceFirst("\"cubeSize\":2", "\"cubeSize\":3")
+		};
+		for (String damagedJson : damagedJsons) {
+			assertNotEquals(json, damagedJson);
+			Cube loadedCube = gson.fromJson(damagedJson, Cube.class);
+			assertTrue(damagedJson, loadedCube.isSolved());
+			loadedCube.rotate(new Rotation(1, "U"));
+			assertFalse(loadedCube.isSolved());
+		}
+	}
+
+	/**
+	 * Test of loading a cube saved with Gson before the stickers were stored in a single array.
+	 */
+	@Test
+	public void testGsonLegacyFormat() {
+		//A 2x2 cube rotated with R and U', as saved by the first version of the game
+		String json = "{\"cubeSize\":2,\"sides\":["
+				+ "{\"sideSize\":2,\"colors\":[[\"WHITE\",\"WHITE\"],[\"RED\",\"RED\"]],\"position\":\"U\"},"
+				+ "{\"sideSize\":2,\"colors\":[[\"BLUE\",\"BLUE\"],[\"WHITE\",\"ORANGE\"]],\"position\":\"F\"},"
+				+ "{\"sideSize\":2,\"colors\":[[\"ORANGE\",\"YELLOW\"],[\"ORANGE\",\"YELLOW\"]],\"position\":\"D\"},"
+				+ "{\"sideSize\":2,\"colors\":[[\"GREEN\",\"GREEN\"],[\"RED\",\"YELLOW\"]],\"position\":\"B\"},"
+				+ "{\"sideSize\":2,\"colors\":[[\"WHITE\",\"ORANGE\"],[\"GREEN\",\"GREEN\"]],\"position\":\"R\"},"
+				+ "{\"sideSize\":2,\"colors\":[[\"RED\",\"YELLOW\"],[\"BLUE\",\"BLUE\"]],\"position\":\"L\"}]}";
+		Gson gson = new Gson();
+		Cube loadedCube = gson.fromJson(json, Cube.class);
+		Cube cube = new Cube(2);
+		cube.rotate(new Rotation(1, "R"));
+		cube.rotate(new Rotation(1, "U'"));
+		assertEquals(cube, loadedCube);
+		assertEquals(cube.toString(), loadedCube.toString());
+
+		loadedCube.rotate(new Rotation(1, "U"));
+		loadedCube.rotate(new Rotation(1, "R'"));
+		assertTrue(loadedCube.isSolved());
+		assertFalse(gson.toJson(loadedCube).contains("\"sides\""));
+		assertEquals(loadedCube, gson.fromJson(gson.toJson(loadedCube), Cube.class));
+
+		Cube invalidCube = gson.fromJson("{\"cubeSize\":3,\"sides\":[]}", Cube.class);
+		assertEquals(new Cube(3), invalidCube);
+		assertEquals(new Cube(Cube.DEFAULT_SIZE), gson.fromJson("{}", Cube.class));
+	}
+
+	/**
+	 * Test of normalize method, of class Cube.
+	 */
+	@Test
+	public void testNormalize() {
+		Cube cube = new Cube(5);
+		cube.scramble(new Scrambler(5));
+		String expected = cube.toString();
+		cube.normalize();
+		for (Side side : cube.getSides()) {
+			assertEquals(0, side.getOrientation());
+		}
+		assertEquals(expected, cube.toString());
+	}
+
+	/**
+	 * Test of rotate method with the rotations of the whole cube, of class Cube.
+	 */
+	@Test
+	public void testRotateWholeCube() {
+		String[][] equivalents = {{"x", "R", "L'"}, {"y", "U", "D'"}, {"z", "F", "B'"}};
+		for (int size = 2; size <= 7; ++size) {
+			for (String[] equivalent : equivalents) {
+				for (String suffix : new String[]{"", "'", "2"}) {
+					Scrambler scrambler = new Scrambler(size);
+					Cube cube = new Cube(size);
+					cube.scramble(scrambler);
+					Cube expectedCube = new Cube(size);
+					expectedCube.scramble(scrambler);
+					String oppositeSuffix = suffix.equals("") ? "'" : suffix.equals("'") ? "" : "2";
+
+					cube.rotate(Rotation.parse(equivalent[0] + suffix));
+					for (int layer = 1; layer < size; ++layer) {
+						expectedCube.rotate(Rotation.of(layer, equivalent[1] + suffix));
+					}
+					expectedCube.rotate(Rotation.of(1, equivalent[2].substring(0, 1) + oppositeSuffix));
+					assertEquals(expectedCube.toString(), cube.toString());
+					assertEquals('R', cube.getSides()[4].getPosition());
+					assertSame(cube.getSideAt('F'), cube.getSides()[1]);
+
+					cube.normalize();
+					assertEquals(expectedCube.toString(), cube.toString());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test of rotate method with the rotations of blocks of layers, of class Cube.
+	 */
+	@Test
+	public void testRotateBlock() {
+		for (int size = 2; size <= 7; ++size) {
+			for (String rotationType : new String[]{"R", "U'", "F2", "L", "D'", "B2"}) {
+				for (int first = 1; first <= size; ++first) {
+					for (int last = first; last <= size; ++last) {
+						Scrambler scrambler = new Scrambler(size);
+						Cube cube = new Cube(size);
+						cube.scramble(scrambler);
+						Cube expectedCube = new Cube(size);
+						expectedCube.scramble(scrambler);
+
+						cube.rotate(Rotation.of(first, last, rotationType));
+						for (int layer = first; layer <= last; ++layer) {
+							expectedCube.rotate(Rotation.of(layer, rotationType));
+						}
+						assertEquals(expectedCube.toString(), cube.toString());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test of apply method, of class Cube.
+	 */
+	@Test
+	public void testApply() {
+		Cube cube = new Cube(3);
+		cube.apply(MoveTable.forCubeSize(4).getPermutation(Rotation.parse("R")));
+		assertEquals(new Cube(3).toString(), cube.toString());
+
+		Cube expectedCube = new Cube(3);
+		expectedCube.rotate(Rotation.parse("F"));
+		cube.apply(MoveTable.forCubeSize(3).getPermutation(Rotation.parse("F")));
+		assertEquals(expectedCube.toString(), cube.toString());
+	}
+
+	/**
+	 * Test of rotate method with a sequence of rotations, of class Cube.
+	 */
+	@Test
+	public void testRotateSequence() {
+		for (int size = 2; size <= 6; ++size) {
+			Rotation[] rotations = new Scrambler(size).getScramble();
+			Cube expectedCube = new Cube(size);
+			Cube cube = new Cube(size);
+			for (int k = 0; k < 3; ++k) {
+				for (Rotation rotation : rotations) {
+					expectedCube.rotate(rotation);
+				}
+				cube.rotate(rotations);
+				assertEquals(expectedCube.toString(), cube.toString());
+			}
+		}
+	}
+
+	/**
+	 * Test of applyAlgorithm method, of class Cube.
+	 */
+	@Test
+	public void testApplyAlgorithm() {
+		PermutationCache cache = PermutationCache.getSharedCache();
+		Rotation[] algorithm = new Scrambler(5, 42).getScramble();
+		Cube expectedCube = new Cube(5);
+		Cube cube = new Cube(5);
+		long misses = cache.getMissCount();
+		long hits = cache.getHitCount();
+		for (int k = 0; k < 3; ++k) {
+			expectedCube.rotate(algorithm);
+			cube.applyAlgorithm(algorithm);
+			assertEquals(expectedCube, cube);
+		}
+		assertEquals(misses + 1, cache.getMissCount());
+		assertEquals(hits + 2, cache.getHitCount());
+
+		cube.undo();
+		expectedCube.undo();
+		assertEquals(expectedCube, cube);
+	}
+
+	/**
+	 * Test of getStateHash method, of class Cube.
+	 */
+	@Test
+	public void testGetStateHash() {
+		Gson gson = new Gson();
+		Random random = new Random(7);
+		for (int size = 2; size <= 6; ++size) {
+			Cube cube = new Cube(size);
+			assertEquals(new Cube(size).getStateHash(), cube.getStateHash());
+			for (int k = 0; k < 200; ++k) {
+				switch (random.nextInt(8)) {
+					case 0:
+						cube.rotate(Rotation.fromCode(Rotation.of(0, "x").getCode() + random.nextInt(9)));
+						break;
+					case 1:
+						cube.rotate(Rotation.of(1, random.nextInt(size) + 1, "U'"));
+						break;
+					case 2:
+						cube.getSides()[random.nextInt(Cube.NUMBER_OF_SIDES)].setColorAt(random.nextInt(size),
+								random.nextInt(size), StickerColor.values()[random.nextInt(6)]);
+						break;
+					case 3:
+						cube.getSides()[random.nextInt(Cube.NUMBER_OF_SIDES)].normalize();
+						break;
+					default:
+						cube.rotate(Rotation.generateNewRotation(size));
+						break;
+				}
+				Cube copy = gson.fromJson(gson.toJson(cube), Cube.class);
+				copy.normalize();
+				assertEquals(copy.getStateHash(), cube.getStateHash());
+			}
+		}
+	}
+
+	/**
+	 * Test of equals and hashCode methods, of class Cube.
+	 */
+	@Test
+	public void testEquals() {
+		Cube cube = new Cube(4);
+		assertEquals(new Cube(4), cube);
+		assertNotEquals(new Cube(3), cube);
+		cube.rotate(Rotation.parse("2R"));
+		cube.rotate(Rotation.parse("U"));
+		assertNotEquals(new Cube(4), cube);
+
+		Cube other = new Cube(4);
+		other.rotate(new Rotation[]{Rotation.parse("2R"), Rotation.parse("U")});
+		assertEquals(other, cube);
+		assertEquals(other.hashCode(), cube.hashCode());
+
+		cube.rotate(Rotation.parse("U'"));
+		cube.rotate(Rotation.parse("2R'"));
+		assertEquals(new Cube(4), cube);
+		cube.rotate(Rotation.parse("y"));
+		assertNotEquals(new Cube(4), cube);
+		assertNotEquals(new Cube(4).getStateHash(), cube.getStateHash());
+	}
+
+	/**
+	 * Test of isSolved method, of class Cube.
+	 */
+	@Test
+	public void testIsSolved() {
+		Cube cube = new Cube(4);
+		assertTrue(cube.isSolved());
+		int[] solvedCount = new int[1];
+		cube.setOnSolved(() -> solvedCount[0]++);
+
+		cube.rotate(Rotation.parse("R"));
+		assertFalse(cube.isSolved());
+		cube.rotate(Rotation.parse("R'"));
+		assertTrue(cube.isSolved());
+		cube.rotate(Rotation.parse("x"));
+		assertTrue(cube.isSolved());
+		assertEquals(1, solvedCount[0]);
+
+		cube.rotate(Rotation.parse("2-3F"));
+		assertFalse(cube.isSolved());
+		cube.rotate(Rotation.parse("2-3F'"));
+		assertEquals(2, solvedCount[0]);
+
+		Scrambler scrambler = new Scrambler(4);
+		cube.scramble(scrambler);
+		assertFalse(cube.isSolved());
+		cube.getSideAt('U').setColorAt(0, 0, StickerColor.RED);
+		Cube copy = new Gson().fromJson(new Gson().toJson(cube), Cube.class);
+		assertEquals(copy.isSolved(), cube.isSolved());
+
+		Cube solvedCube = new Cube(5);
+		for (Side side : solvedCube.getSides()) {
+			for (int i = 0; i < 5; ++i) {
+				for (int j = 0; j < 5; ++j) {
+					side.setColorAt(i, j, StickerColor.GREEN);
+				}
+			}
+		}
+		assertTrue(solvedCube.isSolved());
+	}
+
+	/**
+	 * Test of getCompletionPercentage method, of class Cube.
+	 */
+	@Test
+	public void testGetCompletionPercentage() {
+		Cube cube = new Cube(3);
+		assertEquals(100.0, cube.getCompletionPercentage('F'), 1e-9);
+		cube.rotate(Rotation.parse("R"));
+		assertEquals(100.0 * 6 / 9, cube.getCompletionPercentage('F'), 1e-9);
+		assertEquals(100.0, cube.getCompletionPercentage('R'), 1e-9);
+		assertEquals(100.0, cube.getCompletionPercentage('L'), 1e-9);
+		cube.rotate(Rotation.parse("y"));
+		assertEquals(100.0, cube.getCompletionPercentage('F'), 1e-9);
+		assertEquals(100.0 * 6 / 9, cube.getCompletionPercentage('L'), 1e-9);
+		assertEquals(-1, cube.getCompletionPercentage('X'), 1e-9);
+	}
+
+	/**
+	 * Test of the copy constructor, of class Cube.
+	 */
+	@Test
+	public void testCopy() {
+		Cube cube = new Cube(4);
+		cube.scramble(new Scrambler(4));
+		cube.rotate(Rotation.parse("x"));
+		Cube copy = new Cube(cube);
+		assertEquals(cube, copy);
+		assertEquals(cube.toString(), copy.toString());
+		assertEquals(cube.getStateHash(), copy.getStateHash());
+
+		copy.rotate(Rotation.parse("U"));
+		assertNotEquals(cube, copy);
+		cube.rotate(Rotation.parse("U"));
+		assertEquals(cube, copy);
+		copy.normalize();
+		assertEquals(cube.toString(), copy.toString());
+	}
+
+	/**
+	 * Test of undo and redo methods, of class Cube.
+	 */
+	@Test
+	public void testUndoRedo() {
+		Cube cube = new Cube(4);
+		assertFalse(cube.canUndo());
+		assertFalse(cube.undo());
+		Cube expected = new Cube(cube);
+		cube.rotate(Rotation.parse("R"));
+		cube.rotate(Rotation.parse("2-3U'"));
+		cube.rotate(Rotation.parse("x"));
+		cube.rotate(Rotation.parse("5F"));
+		Cube rotated = new Cube(cube);
+		assertTrue(cube.undo());
+		assertTrue(cube.undo());
+		assertTrue(cube.undo());
+		assertFalse(cube.undo());
+		assertEquals(expected, cube);
+		assertTrue(cube.canRedo());
+		assertTrue(cube.redo());
+		assertTrue(cube.redo());
+		assertTrue(cube.redo());
+		assertFalse(cube.redo());
+		assertEquals(rotated, cube);
+
+		cube.undo();
+		cube.rotate(Rotation.parse("D"));
+		assertFalse(cube.canRedo());
+
+		cube.resetSides();
+		assertFalse(cube.canUndo());
+		cube.rotate(Rotation.parse("R"));
+		cube.rotate(Rotation.parse("R"));
+		cube.rotate(Rotation.parse("L"));
+		cube.rotate(Rotation.parse("L'"));
+		cube.undo();
+		assertFalse(cube.canUndo());
+		assertTrue(cube.isSolved());
+		cube.redo();
+		Cube twice = new Cube(4);
+		twice.rotate(Rotation.parse("R2"));
+		assertEquals(twice, cube);
+
+		cube.resetSides();
+		cube.rotate(new Rotation[]{Rotation.parse("R"), Rotation.parse("U"), Rotation.parse("U'"), Rotation.parse("F")});
+		cube.undo();
+		cube.undo();
+		assertFalse(cube.canUndo());
+		assertTrue(cube.isSolved());
+
+		cube.setJournalCapacity(2);
+		cube.rotate(Rotation.parse("R"));
+		cube.rotate(Rotation.parse("U"));
+		cube.rotate(Rotation.parse("F"));
+		cube.undo();
+		cube.undo();
+		assertFalse(cube.undo());
+		cube.rotate(Rotation.parse("R'"));
+		assertTrue(cube.isSolved());
+
+		cube.scramble(new Scrambler(4));
+		assertFalse(cube.canUndo());
+	}
+
+	/**
+	 * Test of getPeriod method, of class Cube.
+	 */
+	@Test
+	public void testGetPeriod() {
+		Random random = new Random(17);
+		String[] names = {"R", "2U'", "F2", "2-3L", "D'", "x", "Bw"};
+		for (int k = 0; k < 20; ++k) {
+			Cube cube = new Cube(4);
+			if (k % 2 == 1) {
+				cube.scramble(new Scrambler(4));
+				cube.rotate(Rotation.parse("y"));
+			}
+			Rotation[] rotations = new Rotation[1 + random.nextInt(3)];
+			for (int i = 0; i < rotations.length; ++i) {
+				rotations[i] = Rotation.parse(names[random.nextInt(names.length)]);
+			}
+			long period = cube.getPeriod(rotations);
+			long order = MoveTable.forCubeSize(4).compose(rotations).getOrder();
+			assertEquals(0, order % period);
+
+			Cube repeated = new Cube(cube);
+			for (long i = 1; i <= period; ++i) {
+				repeated.rotate(rotations);
+				assertEquals(i == period, repeated.equals(cube));
+			}
+		}
+
+		Cube cube = new Cube(4);
+		Rotation[] rotations = {Rotation.parse("R2"), Rotation.parse("U")};
+		assertEquals(60, MoveTable.forCubeSize(4).compose(rotations).getOrder());
+		assertEquals(30, cube.getPeriod(rotations));
+	}
+
+	/**
+	 * Test of the parallel mode, of class Cube.
+	 */
+	@Test
+	public void testParallel() {
+		Cube cube = new Cube(12);
+		cube.setParallelThreshold(1);
+		assertTrue(cube.isParallel());
+		Cube expected = new Cube(12);
+		Random random = new Random(18);
+		String[] names = {"R", "3U'", "F2", "2-5L", "6D'", "x", "4Bw", "y'", "12F"};
+		for (int k = 0; k < 40; ++k) {
+			Rotation rotation = Rotation.parse(names[random.nextInt(names.length)]);
+			cube.rotate(rotation);
+			expected.rotate(rotation);
+			assertEquals(expected.getStateHash(), cube.getStateHash());
+			assertEquals(expected.getCompletionPercentage('U'), cube.getCompletionPercentage('U'), 1e-9);
+		}
+		Scrambler scrambler = new Scrambler(12);
+		cube.scramble(scrambler);
+		expected.scramble(scrambler);
+		assertEquals(expected, cube);
+		assertEquals(expected.toString(), cube.toString());
+
+		cube.resetSides();
+		cube.rotate(Rotation.parse("x"));
+		cube.rotate(Rotation.parse("3Rw"));
+		cube.rotate(Rotation.parse("3Rw'"));
+		assertTrue(cube.isSolved());
+		expected.resetSides();
+		expected.rotate(Rotation.parse("x"));
+		assertEquals(expected.getStateHash(), cube.getStateHash());
+		cube.setParallel(false);
+		assertFalse(cube.isParallel());
+	}
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.SplittableRandom;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author kinga
+ */
+public class CubieStateTest {
+
+	public CubieStateTest() {
+	}
+
+	@BeforeClass
+	public static void setUpClass() {
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+	}
+
+	@Before
+	public void setUp() {
+	}
+
+	@After
+	public void tearDown() {
+	}
+
+	/**
+	 * Test of then method, of class CubieState.
+	 */
+	@Test
+	public void testThen() {
+		SplittableRandom random = new SplittableRandom(7);
+		for (int cubeSize = 2; cubeSize <= 3; ++cubeSize) {
+			Cube cube = new Cube(cubeSize);
+			CubieState state = new CubieState();
+			for (int i = 0; i < 40; ++i) {
+				int typeIndex = random.nextInt(18);
+				cube.rotate(Rotation.of(1, typeIndex));
+				state = state.then(CubieState.forRotation(typeIndex));
+			}
+			assertTrue(state.isReachable(cubeSize));
+			byte[] stickers = CubieState.solvedStickers(cubeSize);
+			state.toStickers(stickers, cubeSize, CubieState.defaultSideColors());
+			assertEquals(cube, new Cube(cubeSize, stickers));
+			CubieState result = CubieState.fromStickers(stickers, cubeSize, CubieState.defaultSideColors());
+			assertArrayEquals(state.cornerPermutation, result.cornerPermutation);
+			assertArrayEquals(state.cornerTwists, result.cornerTwists);
+			if (cubeSize == 3) {
+				assertEquals(state, result);
+			}
+		}
+	}
+
+	/**
+	 * Test of random method, of class CubieState.
+	 */
+	@Test
+	public void testRandom() {
+		SplittableRandom random = new SplittableRandom(7);
+		int[] cornerCounts = new int[CubieState.CORNERS];
+		for (int i = 0; i < 1000; ++i) {
+			CubieState state = CubieState.random(random, 3);
+			assertTrue(state.isReachable(3));
+			++cornerCounts[state.cornerPermutation[0]];
+
+			CubieState pocketState = CubieState.random(random, 2);
+			assertTrue(pocketState.isReachable(2));
+			assertEquals(CubieState.DBL, pocketState.cornerPermutation[CubieState.DBL]);
+			assertEquals(0, pocketState.cornerTwists[CubieState.DBL]);
+		}
+		for (int count : cornerCounts) {
+			assertTrue(count > 60);
+		}
+
+		CubieState state = new CubieState();
+		state.cornerTwists[0] = 1;
+		assertFalse(state.isReachable(3));
+		assertFalse(state.isReachable(2));
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author kinga
+ */
+public class MoveTableTest {
+
+	public MoveTableTest() {
+	}
+
+	@BeforeClass
+	public static void setUpClass() {
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+	}
+
+	@Before
+	public void setUp() {
+	}
+
+	@After
+	public void tearDown() {
+	}
+
+	/**
+	 * Test of forCubeSize method, of class MoveTable.
+	 */
+	@Test
+	public void testForCubeSize() {
+		for (int i = 2; i <= 25; ++i) {
+			assertEquals(i, MoveTable.forCubeSize(i).getCubeSize());
+			assertSame(MoveTable.forCubeSize(i), MoveTable.forCubeSize(i));
+		}
+	}
+
+	/**
+	 * Test of getPermutation method, of class MoveTable.
+	 */
+	@Test
+	public void testGetPermutation() {
+		MoveTable moveTable = MoveTable.forCubeSize(5);
+		Permutation permutation = moveTable.getPermutation(new Rotation(1, "R"));
+		assertEquals(Cube.NUMBER_OF_SIDES * 5 * 5, permutation.getSize());
+		//4 * 5 stickers around the layer and every sticker of the side except its center
+		assertEquals(44, permutation.getMovedCount());
+		assertSame(permutation, moveTable.getPermutation(new Rotation(1, "R")));
+		assertEquals(20, moveTable.getPermutation(new Rotation(2, "U'")).getMovedCount());
+		assertSame(moveTable.getPermutation(new Rotation(0, "M2")), moveTable.getPermutation(new Rotation(3, "M2")));
+
+		assertNull(moveTable.getPermutation(new Rotation(0, "R")));
+		assertNull(moveTable.getPermutation(new Rotation(6, "R")));
+		assertNull(moveTable.getPermutation(new Rotation(1, "X")));
+	}
+
+	/**
+	 * Test of compose method, of class MoveTable.
+	 */
+	@Test
+	public void testCompose() {
+		for (int size = 2; size <= 7; ++size) {
+			Scrambler scrambler = new Scrambler(size);
+			Rotation[] rotations = scrambler.getScramble();
+			Permutation permutation = MoveTable.forCubeSize(size).compose(rotations);
+			assertEquals(Cube.NUMBER_OF_SIDES * size * size, permutation.getSize());
+
+			Cube expectedCube = new Cube(size);
+			Cube cube = new Cube(size);
+			for (int k = 0; k < 2; ++k) {
+				for (Rotation rotation : rotations) {
+					expectedCube.rotate(rotation);
+				}
+				cube.apply(permutation);
+				assertEquals(expectedCube.toString(), cube.toString());
+			}
+
+			//The sides of the cube don't have to be normalized
+			cube.rotate(Rotation.parse("R"));
+			cube.rotate(Rotation.parse("y"));
+			expectedCube.rotate(Rotation.parse("R"));
+			expectedCube.rotate(Rotation.parse("y"));
+			cube.apply(permutation);
+			for (Rotation rotation : rotations) {
+				expectedCube.rotate(rotation);
+			}
+			assertEquals(expectedCube.toString(), cube.toString());
+		}
+		assertEquals(0, MoveTable.forCubeSize(3).compose(new Rotation[]{Rotation.parse("R"), Rotation.parse("R'")}).getMovedCount());
+	}
+}
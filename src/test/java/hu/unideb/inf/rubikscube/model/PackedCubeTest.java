@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author kinga
+ */
+public class PackedCubeTest {
+
+	public PackedCubeTest() {
+	}
+
+	@BeforeClass
+	public static void setUpClass() {
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+	}
+
+	@Before
+	public void setUp() {
+	}
+
+	@After
+	public void tearDown() {
+	}
+	/**
+	 * Test of rotate method, of class PackedCube.
+	 */
+	@Test
+	public void testRotate() {
+		String[] names = {"R", "U'", "F2", "L", "D'", "B2", "2R", "3U2", "2-3F'", "3Lw", "M", "E'", "S2", "x", "y'", "z2", "5D"};
+		Random random = new Random(20);
+		for (int size = 2; size <= 7; ++size) {
+			Cube cube = new Cube(size);
+			PackedCube packedCube = new PackedCube(size);
+			assertTrue(packedCube.isSolved());
+			assertEquals(cube, packedCube.toCube());
+			for (int k = 0; k < 60; ++k) {
+				Rotation rotation = Rotation.parse(names[random.nextInt(names.length)]);
+				cube.rotate(rotation);
+				packedCube.rotate(rotation);
+			}
+			assertEquals(cube, packedCube.toCube());
+			assertEquals(cube.isSolved(), packedCube.isSolved());
+			assertEquals(new PackedCube(cube), packedCube);
+			assertEquals(new PackedCube(cube).getStateHash(), packedCube.getStateHash());
+		}
+	}
+
+	/**
+	 * Test of isSolved method, of class PackedCube.
+	 */
+	@Test
+	public void testIsSolved() {
+		PackedCube packedCube = new PackedCube(40);
+		packedCube.rotate(Rotation.parse("x"));
+		packedCube.rotate(Rotation.parse("z'"));
+		assertTrue(packedCube.isSolved());
+		packedCube.rotate(Rotation.parse("17R"));
+		assertFalse(packedCube.isSolved());
+		packedCube.rotate(Rotation.parse("17R'"));
+		assertTrue(packedCube.isSolved());
+		assertEquals(StickerColor.RED, new PackedCube(40).getColorAt('U', 39, 39));
+		assertNull(packedCube.getColorAt('X', 0, 0));
+		assertNull(packedCube.getColorAt('U', 40, 0));
+	}
+
+	/**
+	 * Test of the copy constructor and equals method, of class PackedCube.
+	 */
+	@Test
+	public void testCopy() {
+		PackedCube packedCube = new PackedCube(9);
+		packedCube.rotate(new Scrambler(9).getScramble());
+		PackedCube copy = new PackedCube(packedCube);
+		assertEquals(packedCube, copy);
+		assertEquals(packedCube.hashCode(), copy.hashCode());
+		copy.rotate(Rotation.parse("4F"));
+		assertNotEquals(packedCube, copy);
+		assertNotEquals(packedCube.getStateHash(), copy.getStateHash());
+		assertTrue(new PackedCube(1000).getPackedSize() < 6 * 1000 * 1000 / 2);
+	}
+
+}
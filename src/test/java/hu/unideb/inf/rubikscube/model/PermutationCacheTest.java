@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author kinga
+ */
+public class PermutationCacheTest {
+
+	public PermutationCacheTest() {
+	}
+
+	@BeforeClass
+	public static void setUpClass() {
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+	}
+
+	@Before
+	public void setUp() {
+	}
+
+	@After
+	public void tearDown() {
+	}
+
+	private static Rotation[] parse(String sequence) {
+		String[] names = sequence.split(" ");
+		Rotation[] rotations = new Rotation[names.length];
+		for (int i = 0; i < names.length; ++i) {
+			rotations[i] = Rotation.parse(names[i]);
+		}
+		return rotations;
+	}
+
+	/**
+	 * Test of getPermutation method, of class PermutationCache.
+	 */
+	@Test
+	public void testGetPermutation() {
+		PermutationCache cache = new PermutationCache(4);
+		Permutation permutation = cache.getPermutation(parse("R U R' U'"), 3);
+		assertEquals(0, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertSame(permutation, cache.getPermutation(parse("R U R' U'"), 3));
+		assertSame(permutation, cache.getPermutation(parse("R U U' U R' U'"), 3));
+		assertEquals(2, cache.getHitCount());
+		assertNotSame(permutation, cache.getPermutation(parse("R U R' U'"), 4));
+		assertEquals(2, cache.getMissCount());
+		assertEquals(2, cache.size());
+
+		Cube expectedCube = new Cube(3);
+		for (Rotation rotation : parse("R U R' U'")) {
+			expectedCube.rotate(rotation);
+		}
+		Cube cube = new Cube(3);
+		cube.apply(permutation);
+		assertEquals(expectedCube.toString(), cube.toString());
+	}
+
+	/**
+	 * Test of the eviction of the least recently used permutation, of class PermutationCache.
+	 */
+	@Test
+	public void testEviction() {
+		PermutationCache cache = new PermutationCache(2);
+		Permutation first = cache.getPermutation(parse("R"), 3);
+		cache.getPermutation(parse("U"), 3);
+		cache.getPermutation(parse("R"), 3);
+		cache.getPermutation(parse("F"), 3);
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		assertSame(first, cache.getPermutation(parse("R"), 3));
+		cache.getPermutation(parse("U"), 3);
+		assertEquals(4, cache.getMissCount());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getMissCount());
+		assertEquals(1, new PermutationCache(0).getCapacity());
+	}
+
+	/**
+	 * Test of getPermutation method from several threads, of class PermutationCache.
+	 */
+	@Test
+	public void testConcurrentGetPermutation() throws InterruptedException {
+		PermutationCache cache = new PermutationCache(8);
+		String[] algorithms = {"R U R' U'", "F R U R' U' F'", "R U R' U R U2 R'", "M2 U M2 U2 M2 U M2"};
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; ++t) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 200; ++i) {
+					cache.getPermutation(parse(algorithms[i % algorithms.length]), 3);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(algorithms.length, cache.size());
+		assertEquals(800, cache.getHitCount() + cache.getMissCount());
+		assertEquals(0, cache.getEvictionCount());
+	}
+
+}
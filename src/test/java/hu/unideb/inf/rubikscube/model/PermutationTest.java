@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author kinga
+ */
+public class PermutationTest {
+
+	public PermutationTest() {
+	}
+
+	@BeforeClass
+	public static void setUpClass() {
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+	}
+
+	@Before
+	public void setUp() {
+	}
+
+	@After
+	public void tearDown() {
+	}
+
+	/**
+	 * Test of applyTo method, of class Permutation.
+	 */
+	@Test
+	public void testApplyTo() {
+		Permutation permutation = new Permutation(new int[]{1, 2, 0, 3, 5, 4});
+		byte[] stickers = {0, 1, 2, 3, 4, 5};
+		permutation.applyTo(stickers);
+		assertArrayEquals(new byte[]{1, 2, 0, 3, 5, 4}, stickers);
+		permutation.applyTo(stickers);
+		permutation.applyTo(stickers);
+		assertArrayEquals(new byte[]{0, 1, 2, 3, 5, 4}, stickers);
+	}
+
+	/**
+	 * Test of getSize method, of class Permutation.
+	 */
+	@Test
+	public void testGetSize() {
+		assertEquals(6, new Permutation(new int[]{1, 2, 0, 3, 5, 4}).getSize());
+		assertEquals(3, new Permutation(new int[]{0, 1, 2}).getSize());
+	}
+
+	/**
+	 * Test of getMovedCount method, of class Permutation.
+	 */
+	@Test
+	public void testGetMovedCount() {
+		assertEquals(5, new Permutation(new int[]{1, 2, 0, 3, 5, 4}).getMovedCount());
+		assertEquals(0, new Permutation(new int[]{0, 1, 2}).getMovedCount());
+	}
+
+	/**
+	 * Test of then method, of class Permutation.
+	 */
+	@Test
+	public void testThen() {
+		Permutation permutation = new Permutation(new int[]{1, 2, 0, 3, 5, 4});
+		Permutation next = new Permutation(new int[]{0, 1, 3, 2, 4, 5});
+		byte[] expected = {0, 1, 2, 3, 4, 5};
+		permutation.applyTo(expected);
+		next.applyTo(expected);
+		byte[] stickers = {0, 1, 2, 3, 4, 5};
+		permutation.then(next).applyTo(stickers);
+		assertArrayEquals(expected, stickers);
+		assertNull(permutation.then(new Permutation(new int[]{0, 1, 2})));
+	}
+
+	/**
+	 * Test of getOrder method, of class Permutation.
+	 */
+	@Test
+	public void testGetOrder() {
+		assertEquals(6, new Permutation(new int[]{1, 2, 0, 3, 5, 4}).getOrder());
+		assertEquals(1, new Permutation(new int[]{0, 1, 2}).getOrder());
+		MoveTable table = MoveTable.forCubeSize(3);
+		assertEquals(4, table.compose(new Rotation[]{Rotation.parse("R")}).getOrder());
+		assertEquals(105, table.compose(new Rotation[]{Rotation.parse("R"), Rotation.parse("U")}).getOrder());
+		assertEquals(6, table.compose(new Rotation[]{
+			Rotation.parse("R"), Rotation.parse("U"), Rotation.parse("R'"), Rotation.parse("U'")}).getOrder());
+	}
+
+	/**
+	 * Test of getMovedIndices method, of class Permutation.
+	 */
+	@Test
+	public void testGetMovedIndices() {
+		Permutation permutation = new Permutation(new int[]{1, 2, 0, 3, 5, 4});
+		assertArrayEquals(new int[]{0, 1, 2, 4, 5}, permutation.getMovedIndices());
+		assertEquals(2, permutation.getCycleCount());
+		Permutation r = MoveTable.forCubeSize(3).compose(new Rotation[]{Rotation.parse("R")});
+		assertEquals(20, r.getMovedIndices().length);
+		assertEquals(5, r.getCycleCount());
+	}
+}
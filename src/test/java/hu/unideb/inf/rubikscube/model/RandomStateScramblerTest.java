@@ -0,0 +1,171 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.SplittableRandom;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author kinga
+ */
+public class RandomStateScramblerTest {
+
+	@ClassRule
+	public static TemporaryFolder folder = new TemporaryFolder();
+
+	public RandomStateScramblerTest() {
+	}
+
+	@BeforeClass
+	public static void setUpClass() {
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+	}
+
+	@Before
+	public void setUp() {
+	}
+
+	@After
+	public void tearDown() {
+	}
+
+	/**
+	 * Test of getCube method, of class RandomStateScrambler.
+	 */
+	@Test
+	public void testGetCube() {
+		RandomStateScrambler instance = new RandomStateScrambler(3, 42);
+		Cube result = instance.getCube();
+		assertEquals(3, result.getCubeSize());
+		assertFalse(result.isSolved());
+		assertEquals(result, new RandomStateScrambler(3, 42).getCube());
+		instance.generateNewState();
+		assertNotEquals(result, instance.getCube());
+		assertEquals(Cube.DEFAULT_SIZE, new RandomStateScrambler(1).getTargetCubeSize());
+	}
+
+	/**
+	 * Test of getScramble method, of class RandomStateScrambler.
+	 */
+	@Test
+	public void testGetScramble() {
+		RandomStateScrambler instance = new RandomStateScrambler(2, 42);
+		for (int i = 0; i < 20; ++i) {
+			Rotation[] result = instance.getScramble();
+			assertTrue(result.length <= 11);
+			Cube cube = new Cube(2);
+			cube.rotate(result);
+			assertEquals(instance.getCube(), cube);
+			instance.generateNewState();
+		}
+
+		TwoPhaseSolver solver = new TwoPhaseSolver(folder.getRoot().toPath().resolve("twoPhaseTables.bin"));
+		instance = new RandomStateScrambler(3, 42);
+		for (int i = 0; i < 5; ++i) {
+			Rotation[] result = instance.getScramble(solver);
+			assertTrue(result.length <= TwoPhaseSolver.DEFAULT_MAX_LENGTH);
+			Cube cube = new Cube(3);
+			cube.rotate(result);
+			assertEquals(instance.getCube(), cube);
+			instance.generateNewState();
+		}
+		assertNull(new RandomStateScrambler(4, 42).getScramble());
+	}
+
+	/**
+	 * Test of getCube method, of class RandomStateScrambler, for cubes bigger than 3x3.
+	 */
+	@Test
+	public void testGetBigCube() {
+		byte[] sideColors = CubieState.defaultSideColors();
+		SplittableRandom random = new SplittableRandom(42);
+		for (int cubeSize = 4; cubeSize <= 9; ++cubeSize) {
+			Cube scrambled = new Cube(cubeSize);
+			for (int i = 0; i < 200; ++i) {
+				scrambled.rotate(Rotation.of(1 + random.nextInt(cubeSize / 2), random.nextInt(18)));
+			}
+			assertTrue(hasValidEdgePieces(getStickers(scrambled), cubeSize));
+
+			RandomStateScrambler instance = new RandomStateScrambler(cubeSize, 42);
+			byte[] stickers = getStickers(instance.getCube());
+			assertTrue(hasValidEdgePieces(stickers, cubeSize));
+			CubieState state = CubieState.fromStickers(stickers, cubeSize, sideColors);
+			assertTrue(state.isReachable(cubeSize % 2 == 0 ? 2 : 3));
+			int[] colorCounts = new int[StickerColor.values().length];
+			for (byte color : stickers) {
+				++colorCounts[color];
+			}
+			for (byte color : sideColors) {
+				assertEquals(cubeSize * cubeSize, colorCounts[color]);
+			}
+			assertFalse(instance.getCube().isSolved());
+		}
+		assertEquals(25, new RandomStateScrambler(25).getCube().getCubeSize());
+	}
+
+	private static byte[] getStickers(Cube cube) {
+		int cubeSize = cube.getCubeSize();
+		byte[] stickers = new byte[Cube.NUMBER_OF_SIDES * cubeSize * cubeSize];
+		for (int side = 0; side < Cube.NUMBER_OF_SIDES; ++side) {
+			for (int i = 0; i < cubeSize; ++i) {
+				for (int j = 0; j < cubeSize; ++j) {
+					stickers[(side * cubeSize + i) * cubeSize + j]
+							= (byte) cube.getSideAt(Cube.SIDE_POSITIONS[side]).getColorAt(i, j).ordinal();
+				}
+			}
+		}
+		return stickers;
+	}
+
+	/**
+	 * Returns whether each orbit of the edge pieces of the stickers has every edge piece exactly once.
+	 */
+	private static boolean hasValidEdgePieces(byte[] stickers, int cubeSize) {
+		byte[] sideColors = CubieState.defaultSideColors();
+		for (int position = 1; position < cubeSize - 1 - position; ++position) {
+			boolean[] found = new boolean[2 * CubieState.EDGES];
+			for (int i = 0; i < found.length; ++i) {
+				int at = i % 2 == 0 ? position : cubeSize - 1 - position;
+				byte first = stickers[CubieState.edgeStickerIndex(i / 2, 0, at, cubeSize)];
+				byte second = stickers[CubieState.edgeStickerIndex(i / 2, 1, at, cubeSize)];
+				int piece = -1;
+				for (int j = 0; j < found.length; ++j) {
+					int flip = RandomStateScrambler.getEdgePieceKind(i) ^ RandomStateScrambler.getEdgePieceKind(j);
+					if (first == sideColors[CubieState.getEdgeSide(j / 2, flip)]
+							&& second == sideColors[CubieState.getEdgeSide(j / 2, 1 - flip)]) {
+						piece = j;
+					}
+				}
+				if (piece < 0 || found[piece]) {
+					return false;
+				}
+				found[piece] = true;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author kinga
+ */
+public class ReplayTimelineTest {
+
+	public ReplayTimelineTest() {
+	}
+
+	@BeforeClass
+	public static void setUpClass() {
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+	}
+
+	@Before
+	public void setUp() {
+	}
+
+	@After
+	public void tearDown() {
+	}
+	private static Cube replay(Cube initialCube, Rotation[] rotations, int position) {
+		Cube cube = new Cube(initialCube);
+		for (int i = 0; i < position; ++i) {
+			cube.rotate(rotations[i]);
+		}
+		return cube;
+	}
+
+	/**
+	 * Test of seek method, of class ReplayTimeline.
+	 */
+	@Test
+	public void testSeek() {
+		Cube initialCube = new Cube(5);
+		initialCube.scramble(new Scrambler(5));
+		Rotation[] rotations = new Scrambler(5).getScramble();
+		ReplayTimeline timeline = new ReplayTimeline(initialCube, 7);
+		timeline.append(rotations);
+		assertEquals(rotations.length, timeline.size());
+		assertEquals(rotations.length, timeline.getPosition());
+		assertEquals(rotations.length / 7 + 1, timeline.getCheckpointCount());
+		assertEquals(replay(initialCube, rotations, rotations.length), timeline.getCube());
+
+		Random random = new Random(5);
+		for (int k = 0; k < 50; ++k) {
+			int position = random.nextInt(rotations.length + 1);
+			Cube cube = timeline.seek(position);
+			assertEquals(position, timeline.getPosition());
+			assertEquals(replay(initialCube, rotations, position), cube);
+		}
+		assertEquals(initialCube, timeline.seek(0));
+		assertNull(timeline.seek(-1));
+		assertNull(timeline.seek(rotations.length + 1));
+		assertSame(rotations[3], timeline.getRotation(3));
+	}
+
+	/**
+	 * Test of append method, of class ReplayTimeline.
+	 */
+	@Test
+	public void testAppend() {
+		Cube initialCube = new Cube(3);
+		ReplayTimeline timeline = new ReplayTimeline(initialCube, 2);
+		timeline.append(Rotation.parse("R"));
+		timeline.append(Rotation.parse("U"));
+		timeline.append(Rotation.parse("x"));
+		timeline.append(Rotation.parse("F'"));
+		timeline.append(Rotation.parse("M"));
+		timeline.append(Rotation.parse("4R"));
+		assertEquals(5, timeline.size());
+		assertEquals(3, timeline.getCheckpointCount());
+		Rotation[] appended = {Rotation.parse("R"), Rotation.parse("U"), Rotation.parse("x"), Rotation.parse("F'"), Rotation.parse("M")};
+		assertEquals(replay(initialCube, appended, 5), timeline.seek(5));
+		assertEquals(replay(initialCube, appended, 1), timeline.seek(1));
+		assertEquals(replay(initialCube, appended, 5), timeline.seek(5));
+
+		timeline.seek(1);
+		timeline.append(Rotation.parse("R'"));
+		assertEquals(2, timeline.size());
+		assertEquals(2, timeline.getCheckpointCount());
+		assertTrue(timeline.getCube().isSolved());
+		timeline.append(Rotation.parse("D"));
+		assertEquals(replay(initialCube, new Rotation[]{Rotation.parse("R"), Rotation.parse("R'"), Rotation.parse("D")}, 3),
+				timeline.seek(3));
+		assertEquals(initialCube, timeline.seek(2));
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author kinga
+ */
+public class RotationSchedulerTest {
+
+	public RotationSchedulerTest() {
+	}
+
+	@BeforeClass
+	public static void setUpClass() {
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+	}
+
+	@Before
+	public void setUp() {
+	}
+
+	@After
+	public void tearDown() {
+	}
+	private static Rotation[] parse(String... names) {
+		Rotation[] rotations = new Rotation[names.length];
+		for (int i = 0; i < names.length; ++i) {
+			rotations[i] = Rotation.parse(names[i]);
+		}
+		return rotations;
+	}
+
+	/**
+	 * Test of group method, of class RotationScheduler.
+	 */
+	@Test
+	public void testGroup() {
+		RotationScheduler scheduler = new RotationScheduler();
+		List<Rotation[]> groups = scheduler.group(parse("R", "2R", "5L'", "M", "R2", "x", "U", "3D", "2-4F", "F", "6R"), 7);
+		assertEquals(6, groups.size());
+		assertArrayEquals(parse("R", "2R", "5L'", "M"), groups.get(0));
+		assertArrayEquals(parse("R2"), groups.get(1));
+		assertArrayEquals(parse("x"), groups.get(2));
+		assertArrayEquals(parse("U", "3D"), groups.get(3));
+		assertArrayEquals(parse("2-4F", "F"), groups.get(4));
+		assertArrayEquals(parse("6R"), groups.get(5));
+		assertTrue(scheduler.group(new Rotation[0], 3).isEmpty());
+	}
+
+	/**
+	 * Test of apply method, of class RotationScheduler.
+	 */
+	@Test
+	public void testApply() {
+		RotationScheduler scheduler = new RotationScheduler();
+		scheduler.setThreshold(1);
+		Random random = new Random(19);
+		String[] names = {"R", "2R'", "3L2", "4L", "2-3R", "3Rw", "U", "2D", "3U'", "M", "x", "z'", "9R"};
+		for (int size = 7; size <= 8; ++size) {
+			Cube cube = new Cube(size);
+			Cube expected = new Cube(size);
+			for (int k = 0; k < 20; ++k) {
+				Rotation[] rotations = new Rotation[1 + random.nextInt(8)];
+				for (int i = 0; i < rotations.length; ++i) {
+					rotations[i] = Rotation.parse(names[random.nextInt(names.length)]);
+				}
+				scheduler.apply(cube, rotations);
+				for (Rotation rotation : rotations) {
+					expected.rotate(rotation);
+				}
+				assertEquals(expected, cube);
+				assertEquals(expected.getStateHash(), cube.getStateHash());
+			}
+			while (cube.undo()) {
+			}
+			assertTrue(cube.isSolved());
+			assertEquals(new Cube(size), cube);
+		}
+	}
+
+}
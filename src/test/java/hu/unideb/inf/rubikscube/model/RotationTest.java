@@ -192,4 +192,116 @@ public class RotationTest {
 		}
 	}
 
+	/**
+	 * Test of of method, of class Rotation.
+	 */
+	@Test
+	public void testOf() {
+		assertSame(Rotation.of(3, "R'"), Rotation.of(3, "R'"));
+		assertSame(Rotation.of(40, "U2"), Rotation.of(40, "U2"));
+		assertEquals("3R'", Rotation.of(3, "R'").getName());
+		assertEquals(new Rotation(5, "F2"), Rotation.of(5, "F2"));
+		assertSame(Rotation.BASIC_ROTATIONS.get(0), Rotation.of(1, "R"));
+		assertNull(Rotation.of(1, "X"));
+		assertNull(Rotation.of(-1, "R"));
+		assertEquals(Rotation.of(5000, "L"), Rotation.of(5000, "L"));
+		assertEquals("5000L", Rotation.of(5000, "L").getName());
+		assertNull(Rotation.of(1, -1));
+		assertNull(Rotation.of(1, Rotation.NUMBER_OF_TYPES));
+		assertNull(Rotation.of(1, 2, -1));
+	}
+
+	/**
+	 * Test of parse method, of class Rotation.
+	 */
+	@Test
+	public void testParse() {
+		for (Rotation rotation : Rotation.BASIC_ROTATIONS) {
+			assertSame(rotation, Rotation.parse(rotation.getName()));
+			assertSame(rotation, Rotation.parse(rotation.getRotationType()));
+		}
+		assertSame(Rotation.of(12, "B'"), Rotation.parse("12B'"));
+		assertSame(Rotation.of(0, "M2"), Rotation.parse("M2"));
+		assertSame(Rotation.of(0, "x'"), Rotation.parse("x'"));
+		assertTrue(Rotation.parse("y2").isCubeRotation());
+		assertFalse(Rotation.parse("M").isCubeRotation());
+		assertNull(Rotation.parse("3X"));
+		assertNull(Rotation.parse(""));
+		assertNull(Rotation.parse("99999999R"));
+		assertNull(Rotation.parse("999999999R"));
+	}
+
+	/**
+	 * Test of getCode and fromCode methods, of class Rotation.
+	 */
+	@Test
+	public void testCode() {
+		for (int i = 0; i < 20 * Rotation.NUMBER_OF_TYPES; ++i) {
+			Rotation rotation = Rotation.fromCode(i);
+			assertEquals(i, rotation.getCode());
+			assertSame(rotation, Rotation.parse(rotation.getName()));
+		}
+		assertEquals(-1, new Rotation(1, "X").getCode());
+		assertNull(Rotation.fromCode(-1));
+		Rotation deepRotation = Rotation.parse("58000U'");
+		assertEquals(deepRotation, Rotation.fromCode(deepRotation.getCode()));
+	}
+
+	/**
+	 * Test of equals method, of class Rotation.
+	 */
+	@Test
+	public void testEquals() {
+		assertEquals(new Rotation(2, "D'"), new Rotation(2, "D'"));
+		assertEquals(new Rotation(2, "D'").hashCode(), Rotation.of(2, "D'").hashCode());
+		assertNotEquals(new Rotation(2, "D'"), new Rotation(3, "D'"));
+		assertNotEquals(new Rotation(2, "D'"), new Rotation(2, "D"));
+	}
+
+	/**
+	 * Test of the rotations of blocks of layers, of class Rotation.
+	 */
+	@Test
+	public void testBlockRotation() {
+		Rotation wide = Rotation.of(1, 3, "R'");
+		assertEquals("3Rw'", wide.getName());
+		assertEquals(wide, Rotation.parse("3Rw'"));
+		assertEquals(wide, Rotation.parse("1-3R'"));
+		assertEquals(wide, Rotation.fromCode(wide.getCode()));
+		assertEquals(1, wide.getLayerNumber());
+		assertEquals(3, wide.getLastLayerNumber());
+		assertTrue(wide.isBlockRotation());
+
+		Rotation range = Rotation.parse("2-4U2");
+		assertEquals("2-4U2", range.getName());
+		assertEquals(range, Rotation.of(2, 4, "U2"));
+		assertEquals(range, Rotation.fromCode(range.getCode()));
+		assertNotEquals(wide.getCode(), range.getCode());
+		assertNotEquals(Rotation.of(2, 3, "U2"), range);
+
+		assertEquals(Rotation.of(1, 2, "F"), Rotation.parse("Fw"));
+		assertSame(Rotation.of(2, "F"), Rotation.of(2, 2, "F"));
+		assertFalse(Rotation.of(2, "F").isBlockRotation());
+		assertNull(Rotation.of(1, 3, "M"));
+		assertNull(Rotation.of(3, 1, "R"));
+		assertNull(Rotation.parse("xw"));
+		assertNull(Rotation.parse("2-Rw"));
+		assertNull(Rotation.parse("2-3Rw"));
+	}
+
+	/**
+	 * Test of getInverse method, of class Rotation.
+	 */
+	@Test
+	public void testGetInverse() {
+		assertSame(Rotation.parse("R'"), Rotation.parse("R").getInverse());
+		assertSame(Rotation.parse("2U"), Rotation.parse("2U'").getInverse());
+		assertSame(Rotation.parse("F2"), Rotation.parse("F2").getInverse());
+		assertEquals(Rotation.parse("3Rw'"), Rotation.parse("3Rw").getInverse());
+		assertEquals(Rotation.parse("2-4B"), Rotation.parse("2-4B'").getInverse());
+		assertSame(Rotation.parse("M'"), Rotation.parse("M").getInverse());
+		assertSame(Rotation.parse("x"), Rotation.parse("x'").getInverse());
+		assertNull(new Rotation(1, "Q").getInverse());
+	}
+
 }
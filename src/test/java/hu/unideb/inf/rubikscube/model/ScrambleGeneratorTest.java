@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author kinga
+ */
+public class ScrambleGeneratorTest {
+
+	public ScrambleGeneratorTest() {
+	}
+
+	@BeforeClass
+	public static void setUpClass() {
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+	}
+
+	@Before
+	public void setUp() {
+	}
+
+	@After
+	public void tearDown() {
+	}
+
+	/**
+	 * Test of getScramble method, of class ScrambleGenerator.
+	 */
+	@Test
+	public void testGetScramble() {
+		ScrambleGenerator instance = new ScrambleGenerator(4, 42);
+		Rotation[] result = instance.getScramble(7);
+		assertEquals(Scrambler.getScrambleLength(4), result.length);
+		assertArrayEquals(result, new ScrambleGenerator(4, 42).getScramble(7));
+		assertFalse(Arrays.equals(result, instance.getScramble(8)));
+		assertFalse(Arrays.equals(result, new ScrambleGenerator(4, 43).getScramble(7)));
+
+		String sequential = instance.stream(100).map(Arrays::toString).collect(Collectors.joining());
+		String parallel = instance.stream(100).parallel().map(Arrays::toString).collect(Collectors.joining());
+		assertEquals(sequential, parallel);
+	}
+
+	/**
+	 * Test of writeTo method, of class ScrambleGenerator.
+	 */
+	@Test
+	public void testWriteTo() throws Exception {
+		ScrambleGenerator instance = new ScrambleGenerator(3, 42);
+		int count = 20000;
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		instance.writeTo(Channels.newChannel(output), count);
+		String[] lines = new String(output.toByteArray(), StandardCharsets.US_ASCII).split("\n");
+		assertEquals(count, lines.length);
+		for (int index : new int[]{0, 255, 256, 16383, 16384, count - 1}) {
+			String expected = Arrays.stream(instance.getScramble(index)).map(Rotation::getName)
+					.collect(Collectors.joining(" "));
+			assertEquals(expected, lines[index]);
+		}
+	}
+}
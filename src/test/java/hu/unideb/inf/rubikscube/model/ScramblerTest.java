@@ -93,4 +93,45 @@ public class ScramblerTest {
 		}
 	}
 
+	/**
+	 * Test of the scramblers created with a seed, of class Scrambler.
+	 */
+	@Test
+	public void testSeed() {
+		for (int size = 2; size <= 9; ++size) {
+			Scrambler scrambler = new Scrambler(size, 21);
+			Scrambler other = new Scrambler(size, 21);
+			assertEquals(21, scrambler.getSeed());
+			assertArrayEquals(scrambler.getScramble(), other.getScramble());
+			scrambler.generateNewScramble();
+			other.generateNewScramble();
+			assertEquals(scrambler.toString(), other.toString());
+			assertNotEquals(scrambler.toString(), new Scrambler(size, 22).toString());
+		}
+	}
+
+	/**
+	 * Test of the rotations of the scrambles, of class Scrambler.
+	 */
+	@Test
+	public void testAllowedRotations() {
+		int[] counts = new int[Rotation.BASIC_ROTATIONS.size()];
+		for (long seed = 0; seed < 200; ++seed) {
+			Rotation[] scramble = new Scrambler(6, seed).getScramble();
+			for (int i = 0; i < scramble.length; ++i) {
+				assertTrue(scramble[i].getLayerNumber() >= 1 && scramble[i].getLayerNumber() <= 3);
+				assertSame(scramble[i], Rotation.of(scramble[i].getLayerNumber(), scramble[i].getRotationType()));
+				counts[scramble[i].getTypeIndex()]++;
+				if (i >= 1) {
+					assertNotEquals(scramble[i - 1].getSidePosition(), scramble[i].getSidePosition());
+				}
+				if (i >= 2) {
+					assertNotEquals(scramble[i - 2].getSidePosition(), scramble[i].getSidePosition());
+				}
+			}
+		}
+		for (int count : counts) {
+			assertTrue(count > 0);
+		}
+	}
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author kinga
+ */
+public class SequenceOptimizerTest {
+
+	public SequenceOptimizerTest() {
+	}
+
+	@BeforeClass
+	public static void setUpClass() {
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+	}
+
+	@Before
+	public void setUp() {
+	}
+
+	@After
+	public void tearDown() {
+	}
+
+	private static Rotation[] parse(String sequence) {
+		String[] names = sequence.split(" ");
+		Rotation[] rotations = new Rotation[names.length];
+		for (int i = 0; i < names.length; ++i) {
+			rotations[i] = Rotation.parse(names[i]);
+		}
+		return rotations;
+	}
+
+	/**
+	 * Test of optimize method, of class SequenceOptimizer.
+	 */
+	@Test
+	public void testOptimize() {
+		assertEquals(0, SequenceOptimizer.optimize(parse("R U U' R'"), 3).length);
+		assertArrayEquals(parse("2Rw"), SequenceOptimizer.optimize(parse("R 2R"), 4));
+		assertArrayEquals(parse("x"), SequenceOptimizer.optimize(parse("R M' L'"), 3));
+		assertArrayEquals(parse("R2 F"), SequenceOptimizer.optimize(parse("R R F"), 3));
+		assertEquals(2, SequenceOptimizer.optimize(parse("R L R"), 3).length);
+		assertArrayEquals(parse("U 2R F"), SequenceOptimizer.optimize(parse("U 2R F"), 4));
+		assertArrayEquals(parse("4R R'"), SequenceOptimizer.optimize(parse("4R R'"), 4));
+	}
+
+	/**
+	 * Test of optimize method with random sequences, of class SequenceOptimizer.
+	 */
+	@Test
+	public void testOptimizeRandom() {
+		Random random = new Random(42);
+		for (int size = 2; size <= 7; ++size) {
+			for (int k = 0; k < 50; ++k) {
+				Rotation[] rotations = new Rotation[random.nextInt(30)];
+				for (int i = 0; i < rotations.length; ++i) {
+					int typeIndex = random.nextInt(Rotation.NUMBER_OF_TYPES);
+					int first = random.nextInt(size) + 1;
+					int last = typeIndex < 18 && random.nextBoolean() ? first + random.nextInt(size - first + 1) : first;
+					rotations[i] = Rotation.of(first, last, typeIndex);
+				}
+
+				Cube expectedCube = new Cube(size);
+				for (Rotation rotation : rotations) {
+					expectedCube.rotate(rotation);
+				}
+				Rotation[] optimized = SequenceOptimizer.optimize(rotations, size);
+				Cube cube = new Cube(size);
+				for (Rotation rotation : optimized) {
+					cube.rotate(rotation);
+				}
+				assertTrue(optimized.length <= rotations.length);
+				assertEquals(expectedCube.toString(), cube.toString());
+			}
+		}
+	}
+
+}
@@ -15,8 +15,11 @@
  */
 package hu.unideb.inf.rubikscube.model;
 
+import java.lang.management.ManagementFactory;
+import java.util.Random;
 import org.junit.After;
 import org.junit.AfterClass;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -134,5 +137,115 @@ public class SideTest {
 		assertEquals(StickerColor.WHITE, side.getColorAt(1, 1));
 
 		side.setColorAt(2, 2, StickerColor.YELLOW);
+		side.setColorAt(1, 1, null);
+		assertEquals(StickerColor.WHITE, side.getColorAt(1, 1));
+	}
+
+	/**
+	 * Test of rotateMainSideClockwise and rotateMainSideCounterClockwise methods on every sticker, of class Side.
+	 */
+	@Test
+	public void testRotateMainSideAllStickers() {
+		StickerColor[] colors = StickerColor.values();
+		Random random = new Random(7);
+		for (int size = 2; size <= 9; ++size) {
+			Side side = new Side(size, StickerColor.WHITE, 'F');
+			StickerColor[][] expected = new StickerColor[size][size];
+			for (int i = 0; i < size; ++i) {
+				for (int j = 0; j < size; ++j) {
+					expected[i][j] = colors[random.nextInt(colors.length)];
+					side.setColorAt(i, j, expected[i][j]);
+				}
+			}
+
+			side.rotateMainSideClockwise();
+			for (int i = 0; i < size; ++i) {
+				for (int j = 0; j < size; ++j) {
+					assertEquals(expected[size - j - 1][i], side.getColorAt(i, j));
+				}
+			}
+
+			side.rotateMainSideCounterClockwise();
+			side.rotateMainSideCounterClockwise();
+			for (int i = 0; i < size; ++i) {
+				for (int j = 0; j < size; ++j) {
+					assertEquals(expected[j][size - i - 1], side.getColorAt(i, j));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Benchmark of the memory allocated by rotateMainSideClockwise and rotateMainSideCounterClockwise methods, of class Side.
+	 *
+	 * Rotating a side only changes its orientation and normalizing it is done in place, so the allocated memory must not grow with the size of the side. The only allowed allocations are done by the logging.
+	 */
+	@Test
+	public void testRotateMainSideAllocation() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue("Allocated bytes can't be measured", bean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		long threadId = Thread.currentThread().getId();
+
+		int size = 100;
+		int rotations = 400;
+		Side side = new Side(size, StickerColor.RED, 'R');
+		//Warm up, so that class loading and compilation isn't measured
+		for (int i = 0; i < rotations; ++i) {
+			side.rotateMainSideClockwise();
+			side.normalize();
+			side.rotateMainSideCounterClockwise();
+			side.normalize();
+		}
+
+		long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < rotations; ++i) {
+			side.rotateMainSideClockwise();
+			side.normalize();
+			side.rotateMainSideCounterClockwise();
+			side.normalize();
+		}
+		long allocatedPerRotation = (threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / (2 * rotations);
+		assertTrue("Rotating a side allocated " + allocatedPerRotation + " bytes",
+				allocatedPerRotation < size * size);
+	}
+
+	/**
+	 * Test of getOrientation method, of class Side.
+	 */
+	@Test
+	public void testGetOrientation() {
+		Side side = new Side(4, StickerColor.GREEN, 'L');
+		assertEquals(0, side.getOrientation());
+		side.rotateMainSideClockwise();
+		assertEquals(1, side.getOrientation());
+		side.rotateMainSideCounterClockwise();
+		side.rotateMainSideCounterClockwise();
+		assertEquals(3, side.getOrientation());
+		side.normalize();
+		assertEquals(0, side.getOrientation());
+	}
+
+	/**
+	 * Test of normalize method, of class Side.
+	 */
+	@Test
+	public void testNormalize() {
+		StickerColor[] colors = StickerColor.values();
+		for (int size = 2; size <= 7; ++size) {
+			for (int turns = 0; turns < 4; ++turns) {
+				Side side = new Side(size, StickerColor.WHITE, 'F');
+				for (int i = 0; i < size * size; ++i) {
+					side.setColorAt(i / size, i % size, colors[i % colors.length]);
+				}
+				for (int k = 0; k < turns; ++k) {
+					side.rotateMainSideClockwise();
+				}
+				String expected = side.toString();
+				side.normalize();
+				assertEquals(0, side.getOrientation());
+				assertEquals(expected, side.toString());
+			}
+		}
 	}
 }
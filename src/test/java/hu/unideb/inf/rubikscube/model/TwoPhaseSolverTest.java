@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author kinga
+ */
+public class TwoPhaseSolverTest {
+
+	@ClassRule
+	public static TemporaryFolder folder = new TemporaryFolder();
+
+	public TwoPhaseSolverTest() {
+	}
+
+	@BeforeClass
+	public static void setUpClass() {
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+	}
+
+	@Before
+	public void setUp() {
+	}
+
+	@After
+	public void tearDown() {
+	}
+
+	/**
+	 * Test of solve method, of class TwoPhaseSolver.
+	 */
+	@Test
+	public void testSolve() throws Exception {
+		Path tableFile = folder.getRoot().toPath().resolve("tables").resolve("twoPhaseTables.bin");
+		TwoPhaseSolver instance = new TwoPhaseSolver(tableFile);
+		assertEquals(0, instance.solve(new Cube(3)).length);
+
+		RandomStateScrambler scrambler = new RandomStateScrambler(3, 42);
+		for (int i = 0; i < 20; ++i) {
+			Cube cube = scrambler.getCube();
+			Rotation[] result = instance.solve(cube);
+			assertTrue(result.length <= TwoPhaseSolver.DEFAULT_MAX_LENGTH);
+			cube.rotate(result);
+			assertTrue(cube.isSolved());
+			scrambler.generateNewState();
+		}
+		assertTrue(Files.size(tableFile) > 0);
+
+		Cube rotated = new Cube(3);
+		rotated.rotate(Rotation.parse("x"));
+		rotated.rotate(new Scrambler(3, 42).getScramble());
+		Rotation[] result = new TwoPhaseSolver(tableFile).solve(rotated);
+		rotated.rotate(result);
+		assertTrue(rotated.isSolved());
+
+		assertNull(instance.solve(new Cube(4)));
+		Cube twisted = new Cube(3);
+		twisted.getSideAt('U').setColorAt(2, 2, twisted.getSideAt('F').getColorAt(1, 1));
+		twisted.getSideAt('F').setColorAt(0, 2, twisted.getSideAt('R').getColorAt(1, 1));
+		twisted.getSideAt('R').setColorAt(0, 0, twisted.getSideAt('U').getColorAt(1, 1));
+		assertNull(instance.solve(twisted));
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Faculty of Informatics, University of Debrecen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package hu.unideb.inf.rubikscube.model;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author kinga
+ */
+public class TwoPhaseTablesTest {
+
+	@ClassRule
+	public static TemporaryFolder folder = new TemporaryFolder();
+
+	public TwoPhaseTablesTest() {
+	}
+
+	@BeforeClass
+	public static void setUpClass() {
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+	}
+
+	@Before
+	public void setUp() {
+	}
+
+	@After
+	public void tearDown() {
+	}
+
+	/**
+	 * Test of load and read methods, of class TwoPhaseTables.
+	 */
+	@Test
+	public void testLoad() throws Exception {
+		Path file = folder.getRoot().toPath().resolve("twoPhaseTables.bin");
+		assertNull(TwoPhaseTables.read(file));
+		TwoPhaseTables computed = TwoPhaseTables.load(file);
+		assertTrue(Files.exists(file));
+
+		TwoPhaseTables result = TwoPhaseTables.read(file);
+		assertNotSame(computed, result);
+		assertTrue(hasSameTables(computed, result));
+
+		byte[] contents = Files.readAllBytes(file);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[2000]), 100);
+		}
+		assertNull(TwoPhaseTables.read(file));
+		result = TwoPhaseTables.load(file);
+		assertTrue(hasSameTables(computed, result));
+		assertArrayEquals(contents, Files.readAllBytes(file));
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(contents.length / 2);
+		}
+		assertNull(TwoPhaseTables.read(file));
+		Files.write(file, new byte[0]);
+		assertNull(TwoPhaseTables.read(file));
+	}
+
+	private static boolean hasSameTables(TwoPhaseTables tables, TwoPhaseTables other) {
+		return Arrays.equals(tables.twistMoves, other.twistMoves)
+				&& Arrays.equals(tables.flipMoves, other.flipMoves)
+				&& Arrays.equals(tables.sliceMoves, other.sliceMoves)
+				&& Arrays.equals(tables.cornerPermutationMoves, other.cornerPermutationMoves)
+				&& Arrays.equals(tables.edgePermutationMoves, other.edgePermutationMoves)
+				&& Arrays.equals(tables.slicePermutationMoves, other.slicePermutationMoves)
+				&& Arrays.equals(tables.sliceTwistDistances, other.sliceTwistDistances)
+				&& Arrays.equals(tables.sliceFlipDistances, other.sliceFlipDistances)
+				&& Arrays.equals(tables.cornerDistances, other.cornerDistances)
+				&& Arrays.equals(tables.edgeDistances, other.edgeDistances);
+	}
+}